@@ -13,8 +13,11 @@ import org.jamesphbennett.modularstoragesystem.storage.StorageManager;
 import org.jamesphbennett.modularstoragesystem.network.NetworkManager;
 import org.jamesphbennett.modularstoragesystem.network.DisksManager;
 import org.jamesphbennett.modularstoragesystem.network.CableManager;
+import org.jamesphbennett.modularstoragesystem.network.NetworkComponents;
 import org.jamesphbennett.modularstoragesystem.gui.GUIManager;
 import org.jamesphbennett.modularstoragesystem.utils.BlockMarkerCache;
+import org.jamesphbennett.modularstoragesystem.utils.DiskMetadataCache;
+import org.jamesphbennett.modularstoragesystem.utils.DriveBayDiskCache;
 
 import java.util.Arrays;
 import java.util.logging.Level;
@@ -36,6 +39,9 @@ public final class ModularStorageSystem extends JavaPlugin {
     private NetworkSecurityManager securityManager;
     private MessageManager messageManager;
     private BlockMarkerCache blockMarkerCache;
+    private NetworkComponents networkComponents;
+    private DiskMetadataCache diskMetadataCache;
+    private DriveBayDiskCache driveBayDiskCache;
 
     public ModularStorageSystem() {
     }
@@ -52,11 +58,17 @@ public final class ModularStorageSystem extends JavaPlugin {
             messageManager = new MessageManager(this);
             databaseManager = new DatabaseManager(this);
             blockMarkerCache = new BlockMarkerCache(this);
+            networkComponents = new NetworkComponents(this);
+            diskMetadataCache = new DiskMetadataCache(this);
             networkManager = new NetworkManager(this);
+            driveBayDiskCache = new DriveBayDiskCache(this);
             disksManager = new DisksManager(this);
             cableManager = new CableManager(this);
             itemManager = new ItemManager(this);
 
+            // Re-key stored item hashes before anything loads them
+            databaseManager.migrateItemHashes();
+
             // Initialize recipe manager AFTER config and item managers are ready
             recipeManager = new RecipeManager(this);
 
@@ -67,6 +79,9 @@ public final class ModularStorageSystem extends JavaPlugin {
             importerManager = new ImporterManager(this);
             securityManager = new NetworkSecurityManager(this);
 
+            // Convert legacy inline item data in the background
+            databaseManager.startItemDataBackfill();
+
             // Start periodic GUI validation task (every 30 seconds)
             getServer().getScheduler().runTaskTimer(this, () -> {
                 if (guiManager != null) {
@@ -115,6 +130,11 @@ public final class ModularStorageSystem extends JavaPlugin {
             guiManager.closeAllGUIs();
         }
 
+        // Write any pending storage changes before the connection pool closes
+        if (storageManager != null) {
+            storageManager.shutdown();
+        }
+
         if (databaseManager != null) {
             databaseManager.shutdown();
         }
@@ -183,6 +203,18 @@ public final class ModularStorageSystem extends JavaPlugin {
         return blockMarkerCache;
     }
 
+    public NetworkComponents getNetworkComponents() {
+        return networkComponents;
+    }
+
+    public DiskMetadataCache getDiskMetadataCache() {
+        return diskMetadataCache;
+    }
+
+    public DriveBayDiskCache getDriveBayDiskCache() {
+        return driveBayDiskCache;
+    }
+
     /**
      * Log debug message only if debug mode is enabled
      */
@@ -6,10 +6,13 @@ import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.network.NetworkLock;
+import org.jamesphbennett.modularstoragesystem.storage.ItemPrototypeCache;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -190,6 +193,9 @@ public class MSSCommand extends BaseCommand {
 
         // Run database queries async
         plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            // Make sure pending storage changes are counted
+            plugin.getStorageManager().flushPendingChanges();
+
             try (Connection conn = plugin.getDatabaseManager().getConnection()) {
                 // Count networks
                 int networkCount;
@@ -241,6 +247,16 @@ public class MSSCommand extends BaseCommand {
                     importerCount = rs.getInt(1);
                 }
 
+                // Decoded item cache statistics
+                ItemPrototypeCache itemCache = plugin.getStorageManager().getItemPrototypeCache();
+                int cachedItems = itemCache.getCachedCount();
+                long cacheHits = itemCache.getHits();
+                long cacheMisses = itemCache.getMisses();
+
+                // Network lock contention, the network waited on the longest
+                List<NetworkLock.Stats> lockStats = plugin.getNetworkManager().getLockStats();
+                NetworkLock.Stats mostContended = lockStats.isEmpty() || lockStats.getFirst().contended() == 0 ? null : lockStats.getFirst();
+
                 // Recipe information (not DB-dependent, safe to run here)
                 int recipeCount = plugin.getRecipeManager().getRegisteredRecipeCount();
                 Set<String> totalRecipes = plugin.getConfigManager().getRecipeNames();
@@ -255,6 +271,16 @@ public class MSSCommand extends BaseCommand {
                     sender.sendMessage(plugin.getMessageManager().getMessageComponent(player, "commands.info.cables", "count", cableCount));
                     sender.sendMessage(plugin.getMessageManager().getMessageComponent(player, "commands.info.exporters", "count", exporterCount));
                     sender.sendMessage(plugin.getMessageManager().getMessageComponent(player, "commands.info.importers", "count", importerCount));
+                    sender.sendMessage(plugin.getMessageManager().getMessageComponent(player, "commands.info.item-cache",
+                            "cached", cachedItems, "max", plugin.getConfigManager().getItemPrototypeCacheSize(), "hits", cacheHits, "misses", cacheMisses));
+                    if (mostContended != null) {
+                        sender.sendMessage(plugin.getMessageManager().getMessageComponent(player, "commands.info.network-locks",
+                                "network", mostContended.networkId().substring(0, Math.min(16, mostContended.networkId().length())),
+                                "contended", mostContended.contended(), "acquisitions", mostContended.acquisitions(),
+                                "wait", String.format("%.1f", mostContended.waitNanos() / 1_000_000.0),
+                                "max_wait", String.format("%.1f", mostContended.maxWaitNanos() / 1_000_000.0),
+                                "hold", String.format("%.1f", mostContended.holdNanos() / 1_000_000.0)));
+                    }
 
                     String recipeKey = recipesEnabled ? "commands.info.recipes-enabled" : "commands.info.recipes-disabled";
                     sender.sendMessage(plugin.getMessageManager().getMessageComponent(player, recipeKey, "registered", recipeCount, "total", totalRecipes.size()));
@@ -285,6 +311,9 @@ public class MSSCommand extends BaseCommand {
         // Run cleanup operations async
         plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
             try {
+                // Write pending storage changes before inspecting the tables
+                plugin.getStorageManager().flushPendingChanges();
+
                 // Clean up orphaned storage items (items without valid disks)
                 int deletedItems;
                 try (Connection conn = plugin.getDatabaseManager().getConnection();
@@ -293,13 +322,8 @@ public class MSSCommand extends BaseCommand {
                     deletedItems = stmt.executeUpdate();
                 }
 
-                // Clean up empty storage disks with no items
-                int updatedDisks;
-                try (Connection conn = plugin.getDatabaseManager().getConnection();
-                     PreparedStatement stmt = conn.prepareStatement(
-                             "UPDATE storage_disks SET used_cells = 0 WHERE disk_id NOT IN (SELECT DISTINCT disk_id FROM storage_items)")) {
-                    updatedDisks = stmt.executeUpdate();
-                }
+                // Fix used_cells counts that drifted from the stored cells
+                int updatedDisks = plugin.getStorageManager().reconcileCellCounts();
 
                 // Return to main thread to send messages
                 plugin.getServer().getScheduler().runTask(plugin, () -> {
@@ -438,6 +462,9 @@ public class MSSCommand extends BaseCommand {
                     }
                 }
 
+                // Persist pending changes so the recovered disk shows its real contents
+                plugin.getStorageManager().releaseDisk(diskId.toUpperCase());
+
                 // Look up disk in database
                 try (Connection conn = plugin.getDatabaseManager().getConnection();
                      PreparedStatement stmt = conn.prepareStatement(
@@ -466,6 +493,7 @@ public class MSSCommand extends BaseCommand {
 
                                 // Store removal count for later message
                                 final int removedCount = removeStmt.executeUpdate();
+                                plugin.getDriveBayDiskCache().removeDisk(diskId.toUpperCase());
 
                                 // Return to main thread for inventory operations
                                 plugin.getServer().getScheduler().runTask(plugin, () -> {
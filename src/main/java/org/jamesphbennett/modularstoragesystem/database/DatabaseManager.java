@@ -2,19 +2,31 @@ package org.jamesphbennett.modularstoragesystem.database;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.scheduler.BukkitTask;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.storage.StorageManager;
 import org.jetbrains.annotations.NotNull;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.*;
 import java.util.logging.Level;
 
 public class DatabaseManager {
 
+    // Tables holding serialized items that move from Base64 item_data to raw item_bytes
+    private static final String[] ITEM_DATA_TABLES = {"storage_items", "exporter_filters", "importer_filters"};
+    // Filter tables keep their item inline, storage cells reference item_prototypes instead
+    private static final String[] ITEM_FILTER_TABLES = {"exporter_filters", "importer_filters"};
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
     private final ModularStorageSystem plugin;
     private HikariDataSource dataSource;
+    private BukkitTask backfillTask;
+    private volatile boolean backfillCancelled;
 
     public DatabaseManager(ModularStorageSystem plugin) throws SQLException {
         this.plugin = plugin;
@@ -445,6 +457,383 @@ public class DatabaseManager {
         }
     }
 
+    /**
+     * Migrate item tables to store serialized items as raw bytes in an item_bytes column
+     * The legacy Base64 item_data column is only read for rows the backfill has not converted yet
+     */
+    private void migrateItemBytes() throws SQLException {
+        String blobType = plugin.getConfigManager().isMySql() ? "MEDIUMBLOB" : "BLOB";
+
+        try (Connection conn = getConnection()) {
+            for (String table : ITEM_DATA_TABLES) {
+                if (hasColumn(conn, table, "item_bytes")) {
+                    continue;
+                }
+
+                plugin.getLogger().info("Database migration needed - adding item_bytes column to " + table);
+                try (var stmt = conn.createStatement()) {
+                    stmt.execute("ALTER TABLE " + table + " ADD COLUMN item_bytes " + blobType);
+                } catch (SQLException e) {
+                    throw new SQLException("Failed to add item_bytes column to " + table, e);
+                }
+                plugin.getLogger().info("Successfully added item_bytes column to " + table + " table");
+            }
+        }
+    }
+
+    /**
+     * Check if a column exists on a table
+     */
+    private boolean hasColumn(Connection conn, String table, String column) throws SQLException {
+        if (plugin.getConfigManager().isMySql()) {
+            String checkQuery = """
+                SELECT COUNT(*) as count FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? AND COLUMN_NAME = ?
+                """;
+            try (var stmt = conn.prepareStatement(checkQuery)) {
+                stmt.setString(1, plugin.getConfigManager().getMysqlDatabase());
+                stmt.setString(2, table);
+                stmt.setString(3, column);
+                try (var rs = stmt.executeQuery()) {
+                    return rs.next() && rs.getInt("count") > 0;
+                }
+            }
+        }
+
+        try (var stmt = conn.createStatement();
+             var rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equals(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Re-key item hashes produced by the old SHA-256 item hasher
+     * Must run after ItemManager is created and before storage, exporters and importers load any hashes
+     * Each item type is committed on its own, so an interrupted run continues on the next startup
+     */
+    public void migrateItemHashes() {
+        int rekeyedTypes = 0;
+        int rekeyedFilters = 0;
+
+        try (Connection conn = getConnection()) {
+            Set<String> legacyHashes = new LinkedHashSet<>();
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT item_hash FROM item_prototypes WHERE LENGTH(item_hash) = 64");
+                 var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    legacyHashes.add(rs.getString("item_hash"));
+                }
+            }
+            try (PreparedStatement stmt = conn.prepareStatement("SELECT DISTINCT item_hash FROM storage_items WHERE LENGTH(item_hash) = 64");
+                 var rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    legacyHashes.add(rs.getString("item_hash"));
+                }
+            }
+
+            if (!legacyHashes.isEmpty()) {
+                plugin.getLogger().info("Database migration needed - re-keying " + legacyHashes.size() + " stored item types to the new item hash format");
+            }
+
+            for (String oldHash : legacyHashes) {
+                if (rekeyStoredItem(conn, oldHash)) {
+                    rekeyedTypes++;
+                }
+            }
+
+            for (String table : ITEM_FILTER_TABLES) {
+                rekeyedFilters += rekeyFilters(conn, table);
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Item hash migration failed, it will be retried on next startup: " + e.getMessage());
+        }
+
+        if (rekeyedTypes > 0 || rekeyedFilters > 0) {
+            plugin.getLogger().info("Re-keyed " + rekeyedTypes + " stored item types and " + rekeyedFilters + " filters to the new item hash format");
+        }
+    }
+
+    private boolean rekeyStoredItem(Connection conn, String oldHash) throws SQLException {
+        boolean hasPrototype = false;
+        byte[] bytes = null;
+
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT item_bytes FROM item_prototypes WHERE item_hash = ?")) {
+            stmt.setString(1, oldHash);
+            try (var rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    hasPrototype = true;
+                    bytes = rs.getBytes("item_bytes");
+                }
+            }
+        }
+
+        // Cells the prototype backfill has not reached yet still carry the item inline
+        if (bytes == null) {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "SELECT item_data, item_bytes FROM storage_items WHERE item_hash = ? AND (item_bytes IS NOT NULL OR item_data <> '') LIMIT 1")) {
+                stmt.setString(1, oldHash);
+                try (var rs = stmt.executeQuery()) {
+                    if (rs.next()) {
+                        bytes = StorageManager.readItemBytes(rs);
+                    }
+                }
+            }
+        }
+
+        String newHash = rehashItem(bytes);
+        if (newHash == null) {
+            plugin.getLogger().warning("Could not re-key stored item " + oldHash + ", its item data is missing or corrupt");
+            return false;
+        }
+
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = conn.prepareStatement("UPDATE storage_items SET item_hash = ? WHERE item_hash = ?")) {
+                stmt.setString(1, newHash);
+                stmt.setString(2, oldHash);
+                stmt.executeUpdate();
+            }
+
+            if (hasPrototype) {
+                String insertIgnore = plugin.getConfigManager().isMySql() ? "INSERT IGNORE" : "INSERT OR IGNORE";
+                try (PreparedStatement stmt = conn.prepareStatement(insertIgnore + " INTO item_prototypes (item_hash, item_bytes) VALUES (?, ?)")) {
+                    stmt.setString(1, newHash);
+                    stmt.setBytes(2, bytes);
+                    stmt.executeUpdate();
+                }
+                try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM item_prototypes WHERE item_hash = ?")) {
+                    stmt.setString(1, oldHash);
+                    stmt.executeUpdate();
+                }
+            }
+
+            conn.commit();
+            return true;
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private int rekeyFilters(Connection conn, String table) throws SQLException {
+        Map<Long, byte[]> rows = new LinkedHashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT id, item_data, item_bytes FROM " + table + " WHERE LENGTH(item_hash) = 64");
+             var rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                rows.put(rs.getLong("id"), StorageManager.readItemBytes(rs));
+            }
+        }
+
+        int rekeyed = 0;
+        for (Map.Entry<Long, byte[]> row : rows.entrySet()) {
+            String newHash = rehashItem(row.getValue());
+            if (newHash != null) {
+                try (PreparedStatement stmt = conn.prepareStatement("UPDATE " + table + " SET item_hash = ? WHERE id = ?")) {
+                    stmt.setString(1, newHash);
+                    stmt.setLong(2, row.getKey());
+                    stmt.executeUpdate();
+                    rekeyed++;
+                    continue;
+                } catch (SQLException e) {
+                    // Another filter of the same owner already has this item under the new hash
+                    plugin.debugLog("Dropping duplicate filter " + row.getKey() + " of " + table + " after re-keying");
+                }
+            } else {
+                // Without item data the filter can never match an item again
+                plugin.getLogger().warning("Removing filter " + row.getKey() + " of " + table + " without usable item data");
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM " + table + " WHERE id = ?")) {
+                stmt.setLong(1, row.getKey());
+                stmt.executeUpdate();
+            }
+        }
+        return rekeyed;
+    }
+
+    private String rehashItem(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+
+        try {
+            return plugin.getItemManager().generateItemHash(ItemStack.deserializeBytes(bytes));
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Move inline storage cell data to item_prototypes and convert legacy Base64 filter rows to raw item_bytes,
+     * in small batches on a background thread
+     * Converted rows are skipped on the next run, so an interrupted backfill resumes where it stopped
+     */
+    public void startItemDataBackfill() {
+        backfillTask = plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            try {
+                int moved = backfillItemPrototypes();
+                if (moved > 0) {
+                    plugin.getLogger().info("Moved item data of " + moved + " storage cells to item_prototypes");
+                }
+            } catch (SQLException e) {
+                if (backfillCancelled) {
+                    return;
+                }
+                plugin.getLogger().warning("Item prototype conversion paused, it will resume on next startup: " + e.getMessage());
+            }
+
+            for (String table : ITEM_FILTER_TABLES) {
+                try {
+                    int converted = backfillItemBytes(table);
+                    if (converted > 0) {
+                        plugin.getLogger().info("Converted " + converted + " rows of " + table + " to binary item data");
+                    }
+                } catch (SQLException e) {
+                    if (backfillCancelled) {
+                        return;
+                    }
+                    plugin.getLogger().warning("Item data conversion of " + table + " paused, it will resume on next startup: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    /**
+     * Move inline item data of storage cells into item_prototypes, leaving only the hash on the cell
+     */
+    private int backfillItemPrototypes() throws SQLException {
+        String insertIgnore = plugin.getConfigManager().isMySql() ? "INSERT IGNORE" : "INSERT OR IGNORE";
+        int moved = 0;
+        long lastId = 0;
+
+        while (!backfillCancelled) {
+            Map<String, byte[]> prototypes = new HashMap<>();
+            List<Long> cellIds = new ArrayList<>();
+            int rowsRead = 0;
+
+            try (Connection conn = getConnection()) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT id, item_hash, item_data, item_bytes FROM storage_items " +
+                                "WHERE id > ? AND (item_bytes IS NOT NULL OR item_data <> '') ORDER BY id LIMIT " + BACKFILL_BATCH_SIZE)) {
+                    stmt.setLong(1, lastId);
+                    try (var rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rowsRead++;
+                            lastId = rs.getLong("id");
+                            byte[] bytes = StorageManager.readItemBytes(rs);
+                            if (bytes == null) {
+                                plugin.getLogger().warning("Skipping storage cell " + lastId + " with invalid item data");
+                                continue;
+                            }
+
+                            prototypes.putIfAbsent(rs.getString("item_hash"), bytes);
+                            cellIds.add(lastId);
+                        }
+                    }
+                }
+
+                if (rowsRead == 0) {
+                    break;
+                }
+
+                if (!cellIds.isEmpty()) {
+                    conn.setAutoCommit(false);
+                    try (PreparedStatement insertStmt = conn.prepareStatement(
+                            insertIgnore + " INTO item_prototypes (item_hash, item_bytes) VALUES (?, ?)");
+                         PreparedStatement clearStmt = conn.prepareStatement(
+                                 "UPDATE storage_items SET item_bytes = NULL, item_data = '' WHERE id = ?")) {
+                        for (Map.Entry<String, byte[]> entry : prototypes.entrySet()) {
+                            insertStmt.setString(1, entry.getKey());
+                            insertStmt.setBytes(2, entry.getValue());
+                            insertStmt.addBatch();
+                        }
+                        insertStmt.executeBatch();
+
+                        for (Long cellId : cellIds) {
+                            clearStmt.setLong(1, cellId);
+                            clearStmt.addBatch();
+                        }
+                        clearStmt.executeBatch();
+
+                        conn.commit();
+                        moved += cellIds.size();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            }
+        }
+        return moved;
+    }
+
+    private int backfillItemBytes(String table) throws SQLException {
+        int converted = 0;
+        long lastId = 0;
+
+        while (!backfillCancelled) {
+            Map<Long, byte[]> batch = new LinkedHashMap<>();
+            int rowsRead = 0;
+
+            try (Connection conn = getConnection()) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "SELECT id, item_data FROM " + table + " WHERE id > ? AND item_bytes IS NULL ORDER BY id LIMIT " + BACKFILL_BATCH_SIZE)) {
+                    stmt.setLong(1, lastId);
+                    try (var rs = stmt.executeQuery()) {
+                        while (rs.next()) {
+                            rowsRead++;
+                            lastId = rs.getLong("id");
+                            String legacyData = rs.getString("item_data");
+                            if (legacyData == null || legacyData.isEmpty()) {
+                                continue;
+                            }
+
+                            try {
+                                batch.put(lastId, Base64.getDecoder().decode(legacyData));
+                            } catch (IllegalArgumentException e) {
+                                plugin.getLogger().warning("Skipping row " + lastId + " of " + table + " with invalid item data");
+                            }
+                        }
+                    }
+                }
+
+                if (rowsRead == 0) {
+                    break;
+                }
+
+                if (!batch.isEmpty()) {
+                    conn.setAutoCommit(false);
+                    // Only rows that are still unconverted, new rows are written with item_bytes directly
+                    try (PreparedStatement stmt = conn.prepareStatement(
+                            "UPDATE " + table + " SET item_bytes = ?, item_data = '' WHERE id = ? AND item_bytes IS NULL")) {
+                        for (Map.Entry<Long, byte[]> entry : batch.entrySet()) {
+                            stmt.setBytes(1, entry.getValue());
+                            stmt.setLong(2, entry.getKey());
+                            stmt.addBatch();
+                        }
+                        stmt.executeBatch();
+                        conn.commit();
+                        converted += batch.size();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    } finally {
+                        conn.setAutoCommit(true);
+                    }
+                }
+            }
+        }
+        return converted;
+    }
+
     /**
      * Get table creation queries based on database type
      */
@@ -454,6 +843,7 @@ public class DatabaseManager {
         // Data type mappings
         String textType = isMySQL ? "VARCHAR(255)" : "TEXT";
         String longTextType = "TEXT"; // TEXT works in both
+        String blobType = isMySQL ? "MEDIUMBLOB" : "BLOB";
         String intType = isMySQL ? "INT" : "INTEGER";
         String autoIncrement = isMySQL ? "AUTO_INCREMENT" : "AUTOINCREMENT";
         String booleanType = "BOOLEAN"; // Both databases support BOOLEAN
@@ -536,6 +926,15 @@ public class DatabaseManager {
             )
             """, intType, autoIncrement, textType, textType, intType, intType, intType, intType, textType, timestampDefault),
 
+                // Item prototypes table, one serialized template per item hash
+                String.format("""
+                CREATE TABLE IF NOT EXISTS item_prototypes (
+                    item_hash %s PRIMARY KEY,
+                    item_bytes %s NOT NULL,
+                    created_at %s
+                )
+                """, textType, blobType, timestampDefault),
+
                 // Storage items table
                 String.format("""
                 CREATE TABLE IF NOT EXISTS storage_items (
@@ -543,6 +942,7 @@ public class DatabaseManager {
                     disk_id %s NOT NULL,
                     item_hash %s NOT NULL,
                     item_data %s NOT NULL,
+                    item_bytes %s,
                     quantity %s NOT NULL DEFAULT 0,
                     max_stack_size %s NOT NULL DEFAULT 64,
                     created_at %s,
@@ -550,7 +950,7 @@ public class DatabaseManager {
                     FOREIGN KEY (disk_id) REFERENCES storage_disks(disk_id) ON DELETE CASCADE,
                     CHECK (quantity >= 0 AND quantity <= 8128)
                 )
-                """, intType, autoIncrement, textType, textType, longTextType, intType, intType, timestampDefault, timestampUpdate),
+                """, intType, autoIncrement, textType, textType, longTextType, blobType, intType, intType, timestampDefault, timestampUpdate),
 
                 // Exporters table
                 String.format("""
@@ -577,12 +977,13 @@ public class DatabaseManager {
                     exporter_id %s NOT NULL,
                     item_hash %s NOT NULL,
                     item_data %s,
+                    item_bytes %s,
                     filter_type %s NOT NULL DEFAULT 'whitelist',
                     created_at %s,
                     FOREIGN KEY (exporter_id) REFERENCES exporters(exporter_id) ON DELETE CASCADE,
                     UNIQUE(exporter_id, item_hash, filter_type)
                 )
-                """, intType, autoIncrement, textType, textType, longTextType, textType, timestampDefault),
+                """, intType, autoIncrement, textType, textType, longTextType, blobType, textType, timestampDefault),
 
                 // Importers table
                 String.format("""
@@ -609,12 +1010,13 @@ public class DatabaseManager {
                     importer_id %s NOT NULL,
                     item_hash %s NOT NULL,
                     item_data %s,
+                    item_bytes %s,
                     filter_type %s NOT NULL DEFAULT 'whitelist',
                     created_at %s,
                     FOREIGN KEY (importer_id) REFERENCES importers(importer_id) ON DELETE CASCADE,
                     UNIQUE(importer_id, item_hash, filter_type)
                 )
-                """, intType, autoIncrement, textType, textType, longTextType, textType, timestampDefault),
+                """, intType, autoIncrement, textType, textType, longTextType, blobType, textType, timestampDefault),
 
                 // Security terminals table
                 String.format("""
@@ -887,6 +1289,10 @@ public class DatabaseManager {
                 }
             }
         }
+
+        // Add raw item_bytes columns after the storage_items rebuild above, which only copies the legacy columns
+        // Existing rows are converted in the background
+        migrateItemBytes();
     }
 
     /**
@@ -941,6 +1347,11 @@ public class DatabaseManager {
      * Shutdown the database connection pool
      */
     public void shutdown() {
+        backfillCancelled = true;
+        if (backfillTask != null) {
+            backfillTask.cancel();
+        }
+
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             plugin.getLogger().info("Database connection pool shutdown successfully!");
@@ -18,6 +18,7 @@ import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.utils.DiskMetadataCache;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -179,6 +180,12 @@ public class DriveBayGUI implements Listener {
                     int maxCells = rs.getInt("max_cells");
                     String tier = rs.getString("tier");
 
+                    // Prefer the live cell count if the disk has unflushed changes in memory
+                    int ledgerUsedCells = plugin.getStorageManager().getItemLedger().getUsedCells(diskId);
+                    if (ledgerUsedCells >= 0) {
+                        usedCells = ledgerUsedCells;
+                    }
+
                     if (tier == null || tier.isEmpty()) {
                         tier = "1k";
                         plugin.getLogger().warning("Disk " + diskId + " had no tier, defaulting to 1k");
@@ -420,6 +427,9 @@ public class DriveBayGUI implements Listener {
             return false;
         }
 
+        // Only cached once the transaction committed
+        DiskMetadataCache.DiskMetadata[] diskMetadata = new DiskMetadataCache.DiskMetadata[1];
+
         try {
             plugin.getDatabaseManager().executeTransaction(conn -> {
                 boolean diskExists = false;
@@ -427,13 +437,14 @@ public class DriveBayGUI implements Listener {
                 String existingTier = null;
 
                 try (PreparedStatement checkStmt = conn.prepareStatement(
-                        "SELECT disk_id, crafter_uuid, crafter_name, tier FROM storage_disks WHERE disk_id = ?")) {
+                        "SELECT disk_id, crafter_uuid, crafter_name, tier, max_cells FROM storage_disks WHERE disk_id = ?")) {
                     checkStmt.setString(1, diskId);
                     try (ResultSet rs = checkStmt.executeQuery()) {
                         if (rs.next()) {
                             diskExists = true;
                             existingCrafterName = rs.getString("crafter_name");
                             existingTier = rs.getString("tier");
+                            diskMetadata[0] = new DiskMetadataCache.DiskMetadata(existingTier, rs.getInt("max_cells"));
                         }
                     }
                 }
@@ -463,6 +474,7 @@ public class DriveBayGUI implements Listener {
                         insertStmt.setInt(6, 0);
                         insertStmt.executeUpdate();
                     }
+                    diskMetadata[0] = new DiskMetadataCache.DiskMetadata(tier, plugin.getConfigManager().getDefaultCellsPerDisk());
 
                     plugin.getLogger().info("Created new disk record for ID: " + diskId + " with tier: " + tier);
                 } else {
@@ -517,14 +529,11 @@ public class DriveBayGUI implements Listener {
                 } else {
                     plugin.getLogger().info("Network " + networkId + " is standalone/invalid, not associating disk " + diskId + " with it");
                 }
-
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "UPDATE storage_disks SET used_cells = (SELECT COUNT(*) FROM storage_items WHERE disk_id = ?), updated_at = CURRENT_TIMESTAMP WHERE disk_id = ?")) {
-                    stmt.setString(1, diskId);
-                    stmt.setString(2, diskId);
-                    stmt.executeUpdate();
-                }
             });
+            if (diskMetadata[0] != null) {
+                plugin.getDiskMetadataCache().put(diskId, diskMetadata[0].tier(), diskMetadata[0].maxCells());
+            }
+            plugin.getDriveBayDiskCache().setDisk(driveBayLocation, slotIndex, diskId);
 
             if (isNetworkValid()) {
                 plugin.getGUIManager().refreshNetworkTerminals(networkId);
@@ -545,6 +554,7 @@ public class DriveBayGUI implements Listener {
     }
 
     private boolean removeDiskFromSlot(Player player, int slotIndex) {
+        String[] removedDiskId = new String[1];
         try {
             plugin.getDatabaseManager().executeTransaction(conn -> {
                 try (PreparedStatement stmt = conn.prepareStatement(
@@ -556,7 +566,9 @@ public class DriveBayGUI implements Listener {
                     stmt.setInt(5, slotIndex);
 
                     try (ResultSet rs = stmt.executeQuery()) {
-                        rs.next();
+                        if (rs.next()) {
+                            removedDiskId[0] = rs.getString("disk_id");
+                        }
                     }
                 }
 
@@ -571,6 +583,13 @@ public class DriveBayGUI implements Listener {
                 }
 
             });
+            plugin.getDriveBayDiskCache().removeSlot(driveBayLocation, slotIndex);
+
+            // Persist the disk's stored items before it leaves the network
+            if (removedDiskId[0] != null) {
+                plugin.getStorageManager().releaseDisk(removedDiskId[0]);
+                plugin.getDiskMetadataCache().invalidate(removedDiskId[0]);
+            }
 
             if (isNetworkValid()) {
                 plugin.getGUIManager().refreshNetworkTerminals(networkId);
@@ -329,11 +329,17 @@ public class BlockListener implements Listener {
             setBlockDirectionDelayed(block, player, item);
         });
 
-        // Schedule network detection for next tick (after block is placed)
-        plugin.getServer().getScheduler().runTask(plugin, () -> {
+        // Schedule network detection for next tick (after block is placed), the result is handled back on the main thread
+        plugin.getServer().getScheduler().runTask(plugin, () -> networkManager.detectNetworkAsync(location).whenComplete((network, error) -> {
             try {
-                NetworkInfo network = networkManager.detectNetwork(location);
+                if (error != null) {
+                    throw error;
+                }
 
+                // The block may have been broken again while the network was being detected
+                if (!plugin.getBlockMarkerCache().isMarkedAsMSSBlock(location)) {
+                    return;
+                }
 
                 // Create security terminal if this was a security terminal placement
                 // Do this after checking the limit but before checking network validity so it works even for standalone terminals
@@ -442,12 +448,12 @@ public class BlockListener implements Listener {
                     }
                 }
 
-            } catch (Exception e) {
+            } catch (Throwable e) {
                 Component message = plugin.getMessageManager().getMessageComponent(player, "errors.network.connection-lost");
                 player.sendMessage(message);
                 plugin.getLogger().severe("Error setting up network: " + e.getMessage());
             }
-        });
+        }));
     }
 
     @EventHandler(priority = EventPriority.HIGHEST)
@@ -575,30 +581,16 @@ public class BlockListener implements Listener {
             if (networkId != null) {
                 plugin.getServer().getScheduler().runTask(plugin, () -> {
                     try {
-                        // Try to re-detect the network from remaining blocks and handle fragmentation
+                        // Work out what is left of the network from its cached topology and handle fragmentation
                         boolean networkStillValid = false;
-                        Set<Location> processedLocations = new HashSet<>();
-
-                        // Check each adjacent location to see if it forms a valid network segment
-                        for (Location adjacent : getAdjacentLocations(location)) {
-                            if (isCustomNetworkBlockOrCableOrExporterOrImporter(adjacent.getBlock()) && !processedLocations.contains(adjacent)) {
-                                NetworkInfo updatedNetwork = networkManager.detectNetwork(adjacent);
-                                if (updatedNetwork != null && updatedNetwork.isValid()) {
-                                    // Mark all blocks in this network segment as processed
-                                    processedLocations.addAll(updatedNetwork.getAllBlocks());
-                                    processedLocations.addAll(updatedNetwork.getNetworkCables());
-                                    
-                                    // Register this network segment (will get a new ID if different from original)
-                                    networkManager.registerNetwork(updatedNetwork, player.getUniqueId());
-                                    networkStillValid = true;
-                                    
-                                    // Refresh terminals for this network segment
-                                    String newNetworkId = networkManager.getNetworkId(adjacent);
-                                    if (newNetworkId != null) {
-                                        plugin.getGUIManager().refreshNetworkTerminals(newNetworkId);
-                                    }
-                                }
-                            }
+
+                        // Register each valid network segment (will get a new ID if different from original)
+                        for (NetworkInfo updatedNetwork : networkManager.detectNetworksAfterRemoval(networkId, location)) {
+                            networkManager.registerNetwork(updatedNetwork, player.getUniqueId());
+                            networkStillValid = true;
+
+                            // Refresh terminals for this network segment
+                            plugin.getGUIManager().refreshNetworkTerminals(updatedNetwork.getNetworkId());
                         }
 
                         if (!networkStillValid) {
@@ -996,45 +988,20 @@ public class BlockListener implements Listener {
     }
 
     /**
-     * Check if a block is marked as a custom MSS block in the database
-     * Uses shared cache to prevent DB spam from player clicks
+     * Check if a block is marked as a custom MSS block
+     * Uses the shared in-memory marker index
      */
     private boolean isMarkedAsCustomBlock(Location location, String blockType) {
         return plugin.getBlockMarkerCache().isMarkedAsCustomBlock(location, blockType);
     }
 
     private void markLocationAsCustomBlock(Location location, String blockType) throws SQLException {
-        plugin.getDatabaseManager().executeTransaction(conn -> {
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "INSERT OR REPLACE INTO custom_block_markers (world_name, x, y, z, block_type) VALUES (?, ?, ?, ?, ?)")) {
-                stmt.setString(1, location.getWorld().getName());
-                stmt.setInt(2, location.getBlockX());
-                stmt.setInt(3, location.getBlockY());
-                stmt.setInt(4, location.getBlockZ());
-                stmt.setString(5, blockType);
-                stmt.executeUpdate();
-            }
-        });
-
-        // Invalidate cache after marking block
-        plugin.getBlockMarkerCache().invalidateBlockMarkerCache(location, blockType);
+        plugin.getBlockMarkerCache().markCustomBlock(location, blockType);
     }
 
     private void removeCustomBlockMarker(Location location) {
         try {
-            plugin.getDatabaseManager().executeTransaction(conn -> {
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "DELETE FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ?")) {
-                    stmt.setString(1, location.getWorld().getName());
-                    stmt.setInt(2, location.getBlockX());
-                    stmt.setInt(3, location.getBlockY());
-                    stmt.setInt(4, location.getBlockZ());
-                    stmt.executeUpdate();
-                }
-            });
-
-            // Invalidate cache for all block types at this location
-            plugin.getBlockMarkerCache().invalidateAllBlockTypesAtLocation(location);
+            plugin.getBlockMarkerCache().removeCustomBlockMarker(location);
         } catch (Exception e) {
             plugin.getLogger().severe("Error removing custom block marker: " + e.getMessage());
         }
@@ -578,5 +578,7 @@ public class PlayerListener implements Listener {
         } catch (SQLException e) {
             plugin.getLogger().warning("Error removing recycled disk " + diskId + " from database: " + e.getMessage());
         }
+
+        plugin.getDiskMetadataCache().invalidate(diskId);
     }
 }
\ No newline at end of file
@@ -52,7 +52,15 @@ public class ConfigManager {
     // Performance settings
     private int maxImportersPerTick;
     private int maxExportersPerTick;
+    private long importerExporterTickBudgetNanos;
+    private int storageTransferThreads;
+    private int exporterStacksPerCycle;
+    private int importerStacksPerCycle;
     private boolean batchImporterExporterOps;
+    private int storageFlushInterval;
+    private int itemPrototypeCacheSize;
+    private boolean asyncNetworkDetection;
+    private int networkEventWindow;
 
     // Database settings
     private String databaseType;
@@ -234,7 +242,15 @@ public class ConfigManager {
     private void loadPerformanceSettings() {
         maxImportersPerTick = config.getInt("performance.importer_exporter.max_importers_per_tick", 1000);
         maxExportersPerTick = config.getInt("performance.importer_exporter.max_exporters_per_tick", 1000);
+        storageTransferThreads = Math.max(1, config.getInt("performance.importer_exporter.transfer_threads", 2));
+        exporterStacksPerCycle = Math.max(1, config.getInt("performance.importer_exporter.exporter_stacks_per_cycle", 1));
+        importerStacksPerCycle = Math.max(1, config.getInt("performance.importer_exporter.importer_stacks_per_cycle", 1));
+        importerExporterTickBudgetNanos = (long) (Math.max(0, config.getDouble("performance.importer_exporter.tick_budget_ms", 1.0)) * 1_000_000);
         batchImporterExporterOps = config.getBoolean("performance.importer_exporter.batch_operations", true);
+        storageFlushInterval = config.getInt("performance.storage.flush_interval", 100);
+        itemPrototypeCacheSize = Math.max(1, config.getInt("performance.storage.item_cache_size", 4096));
+        asyncNetworkDetection = config.getBoolean("performance.network.async_detection", true);
+        networkEventWindow = Math.max(1, config.getInt("performance.network.event_window", 5));
     }
 
     private void loadDatabaseSettings() {
@@ -375,11 +391,67 @@ public class ConfigManager {
         return maxExportersPerTick;
     }
 
+    /**
+     * Time the importers or the exporters may take each tick in nanoseconds, 0 for no limit
+     */
+    public long getImporterExporterTickBudgetNanos() {
+        return importerExporterTickBudgetNanos;
+    }
+
+    /**
+     * Threads running the storage side of importer and exporter transfers
+     */
+    public int getStorageTransferThreads() {
+        return storageTransferThreads;
+    }
+
+    /**
+     * Stacks an exporter moves into a container per cycle
+     */
+    public int getExporterStacksPerCycle() {
+        return exporterStacksPerCycle;
+    }
+
+    /**
+     * Stacks an importer moves out of a container per cycle
+     */
+    public int getImporterStacksPerCycle() {
+        return importerStacksPerCycle;
+    }
+
     @SuppressWarnings("unused")
     public boolean shouldBatchImporterExporterOps() {
         return batchImporterExporterOps;
     }
 
+    /**
+     * Get how often (in ticks) pending storage changes are written to the database
+     */
+    public int getStorageFlushInterval() {
+        return storageFlushInterval;
+    }
+
+    /**
+     * Get how many decoded item prototypes are kept in memory
+     */
+    public int getItemPrototypeCacheSize() {
+        return itemPrototypeCacheSize;
+    }
+
+    /**
+     * Check if networks are detected from chunk snapshots off the main thread
+     */
+    public boolean isAsyncNetworkDetection() {
+        return asyncNetworkDetection;
+    }
+
+    /**
+     * Get how long (in ticks) network events are collected before being delivered together
+     */
+    public int getNetworkEventWindow() {
+        return networkEventWindow;
+    }
+
     // Database getters
     @SuppressWarnings("unused")
     public String getDatabaseType() {
@@ -226,16 +226,7 @@ public class ExplosionManager {
      */
     private void removeCustomBlockMarker(Location location) {
         try {
-            plugin.getDatabaseManager().executeTransaction(conn -> {
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "DELETE FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ?")) {
-                    stmt.setString(1, location.getWorld().getName());
-                    stmt.setInt(2, location.getBlockX());
-                    stmt.setInt(3, location.getBlockY());
-                    stmt.setInt(4, location.getBlockZ());
-                    stmt.executeUpdate();
-                }
-            });
+            plugin.getBlockMarkerCache().removeCustomBlockMarker(location);
         } catch (Exception e) {
             plugin.getLogger().severe("Error removing custom block marker: " + e.getMessage());
         }
@@ -302,26 +293,10 @@ public class ExplosionManager {
     }
 
     /**
-     * Check if a location is marked as a custom block in the database
+     * Check if a location is marked as a custom block
      */
     private boolean isMarkedAsCustomBlock(Location location, String blockType) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ? AND block_type = ?")) {
-
-            stmt.setString(1, location.getWorld().getName());
-            stmt.setInt(2, location.getBlockX());
-            stmt.setInt(3, location.getBlockY());
-            stmt.setInt(4, location.getBlockZ());
-            stmt.setString(5, blockType);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error checking custom block marker: " + e.getMessage());
-            return false;
-        }
+        return plugin.getBlockMarkerCache().isMarkedAsCustomBlock(location, blockType);
     }
 
     /**
@@ -10,7 +10,9 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
-import org.jamesphbennett.modularstoragesystem.storage.StoredItem;
+import org.jamesphbennett.modularstoragesystem.network.NetworkChange;
+import org.jamesphbennett.modularstoragesystem.storage.StorageManager;
+import org.jamesphbennett.modularstoragesystem.utils.TickScheduler;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -25,8 +27,15 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
     private final Map<String, ExporterData> activeExporters = new ConcurrentHashMap<>();
     private final Map<String, Integer> exporterCycleIndex = new ConcurrentHashMap<>();
 
+    // Exporters spread over the ticks of the export interval
+    private final TickScheduler<String> exportScheduler;
+
+    // Exporters with a transfer between retrieving from storage and placing in the container
+    private final Set<String> exportsInFlight = ConcurrentHashMap.newKeySet();
+
     public ExporterManager(ModularStorageSystem plugin) {
         this.plugin = plugin;
+        this.exportScheduler = new TickScheduler<>(plugin.getConfigManager().getExportTickInterval());
         loadExporters();
         startExportTask();
         // Register as a listener for network updates
@@ -53,6 +62,24 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
         updateExporterNetworkAssignments();
     }
 
+    /**
+     * Only the exporters of a network that lost blocks, was merged away or was removed need to be re-checked
+     */
+    @Override
+    public void onNetworkChanged(NetworkChange change) {
+        if (!change.isRemoved() && change.getRemovedBlocks().isEmpty() && change.getMergedNetworks().isEmpty()) {
+            return;
+        }
+
+        List<ExporterData> affected = new ArrayList<>();
+        for (ExporterData exporter : activeExporters.values()) {
+            if (change.getNetworkId().equals(exporter.networkId) || change.getMergedNetworks().contains(exporter.networkId)) {
+                affected.add(exporter);
+            }
+        }
+        updateExporterNetworkAssignments(affected);
+    }
+
     /**
      * Data class for exporter information
      */
@@ -102,6 +129,7 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
 
                         activeExporters.put(exporterId, data);
                         exporterCycleIndex.put(exporterId, 0);
+                        exportScheduler.add(exporterId);
                     }
                 }
             }
@@ -132,31 +160,31 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
      * Start the periodic export task with rate limiting
      */
     private void startExportTask() {
-        int tickInterval = plugin.getConfigManager().getExportTickInterval();
-
+        // Runs every tick, each exporter comes up once per interval on the tick of its phase
         plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
             // Get max exporters to process per tick from config
             int maxExportersPerTick = plugin.getConfigManager().getMaxExportersPerTick();
-            int processedCount = 0;
-
-            // Process exporters with rate limiting
-            for (ExporterData exporter : activeExporters.values()) {
-                if (exporter.enabled) {
-                    // Check if we've hit the rate limit
-                    if (processedCount >= maxExportersPerTick) {
-                        break; // Stop processing this tick, resume next tick
-                    }
+            long budgetNanos = plugin.getConfigManager().getImporterExporterTickBudgetNanos();
 
-                    processExport(exporter);
-                    processedCount++;
+            // Process due exporters within the tick limits, the rest carries over to the next tick
+            TickScheduler.Tick tick = exportScheduler.tick(exporterId -> {
+                ExporterData exporter = activeExporters.get(exporterId);
+                if (exporter == null) {
+                    return TickScheduler.Visit.REMOVED;
+                }
+                if (!exporter.enabled || exportsInFlight.contains(exporterId)) {
+                    return TickScheduler.Visit.SKIPPED;
                 }
-            }
+
+                processExport(exporter);
+                return TickScheduler.Visit.PROCESSED;
+            }, maxExportersPerTick, budgetNanos);
 
             // Debug log if we hit the rate limit
-            if (processedCount >= maxExportersPerTick && activeExporters.size() > processedCount) {
-                plugin.debugLog("Exporter rate limit reached: processed " + processedCount + " of " + activeExporters.size() + " active exporters");
+            if (tick.carried() > 0) {
+                plugin.debugLog("Exporter tick limit reached: processed " + tick.processed() + ", carrying " + tick.carried() + " exporters to the next tick");
             }
-        }, tickInterval, tickInterval);
+        }, 1L, 1L);
 
         // Network assignment updates are now handled via NetworkUpdateListener callbacks
         // REMOVED: Periodic validation timer (now event-driven)
@@ -257,6 +285,7 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
                     ExporterData updatedData = new ExporterData(exporter.exporterId, adjacentNetworkId, exporter.location, exporter.enabled);
                     updatedData.filterItems.addAll(exporter.filterItems);
                     activeExporters.put(exporter.exporterId, updatedData);
+                    plugin.getNetworkManager().getLocationIndex().invalidate(exporter.location);
                     
                     // Update the reference for the rest of this method
                     exporter = updatedData;
@@ -292,24 +321,16 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
                 return; // Inventory is completely full
             }
 
-            // Check if this is a brewing stand and handle specially
-            Material containerType = targetContainer.getBlock().getType();
-            boolean isBrewingStand = containerType == Material.BREWING_STAND;
-            
-            if (isBrewingStand) {
-                // Use brewing stand specific logic that handles slot selection internally
-                exportBrewingStandWithSlotSelection(exporter, targetContainer);
-            } else {
-                // Use regular round-robin for other containers
-                String itemHashToExport = getNextItemToExport(exporter);
-                
-                if (itemHashToExport == null) {
-                    return; // No items to export
-                }
+            // Snapshot what the storage side needs, items are retrieved off the main thread and placed on a later tick
+            ExportTarget target = ExportTarget.of(targetContainer.getBlock().getType());
+            int stacks = target == ExportTarget.GENERIC
+                    ? Math.min(plugin.getConfigManager().getExporterStacksPerCycle(), Math.max(1, countEmptySlots(targetInventory)))
+                    : 1;
+            ExportRequest request = new ExportRequest(exporter, targetContainer.getLocation(), target, List.copyOf(exporter.filterItems),
+                    target == ExportTarget.BREWING_STAND ? snapshotContents(targetInventory) : null, stacks);
 
-                // Try to export the item with slot-specific routing
-                exportItemWithSlotRouting(exporter, itemHashToExport, targetContainer);
-            }
+            exportsInFlight.add(exporter.exporterId);
+            plugin.getStorageManager().getTransfers().submit(() -> retrieveForExport(request), this::commitExport, this::abortExport);
 
         } catch (Exception e) {
             plugin.getLogger().severe("Error processing export for " + exporter.exporterId + ": " + e.getMessage());
@@ -336,6 +357,19 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
         return false; // No space available
     }
 
+    /**
+     * Count the empty slots of an inventory, bounds how many stacks one export cycle retrieves
+     */
+    private int countEmptySlots(Inventory inventory) {
+        int empty = 0;
+        for (ItemStack item : inventory.getStorageContents()) {
+            if (item == null || item.getType() == Material.AIR) {
+                empty++;
+            }
+        }
+        return empty;
+    }
+
     /**
      * FIXED: Add items to inventory with stack optimization (fills partial stacks first)
      * @param targetInventory The inventory to add items to
@@ -379,12 +413,12 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
     /**
      * Check if an item can be placed in a specific brewing stand slot
      */
-    private boolean canPlaceItemInBrewingSlot(Inventory brewingInventory, ItemStack itemToPlace, int slot) {
-        if (slot < 0 || slot >= brewingInventory.getSize()) {
+    private boolean canPlaceItemInBrewingSlot(ItemStack[] brewingContents, ItemStack itemToPlace, int slot) {
+        if (slot < 0 || slot >= brewingContents.length) {
             return false;
         }
         
-        ItemStack existingItem = brewingInventory.getItem(slot);
+        ItemStack existingItem = brewingContents[slot];
         
         // Slot is empty - can place
         if (existingItem == null || existingItem.getType() == Material.AIR) {
@@ -404,23 +438,23 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
     /**
      * Get the next item to export using round-robin
      */
-    private String getNextItemToExport(ExporterData exporter) {
-        if (exporter.filterItems.isEmpty()) {
+    private String getNextItemToExport(ExporterData exporter, List<String> filterItems) {
+        if (filterItems.isEmpty()) {
             return null;
         }
 
-        int currentIndex = exporterCycleIndex.get(exporter.exporterId);
+        int currentIndex = exporterCycleIndex.getOrDefault(exporter.exporterId, 0);
 
         // Try each filter item once, starting from current index
-        for (int i = 0; i < exporter.filterItems.size(); i++) {
-            int checkIndex = (currentIndex + i) % exporter.filterItems.size();
-            String itemHash = exporter.filterItems.get(checkIndex);
+        for (int i = 0; i < filterItems.size(); i++) {
+            int checkIndex = (currentIndex + i) % filterItems.size();
+            String itemHash = filterItems.get(checkIndex);
 
             // Check if this item is available in the network
             try {
                 if (isItemAvailableInNetwork(exporter.networkId, itemHash)) {
                     // Update the cycle index for next time
-                    exporterCycleIndex.put(exporter.exporterId, (checkIndex + 1) % exporter.filterItems.size());
+                    exporterCycleIndex.put(exporter.exporterId, (checkIndex + 1) % filterItems.size());
                     return itemHash;
                 }
             } catch (Exception e) {
@@ -429,7 +463,7 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
         }
 
         // No items available, increment index anyway for next cycle
-        exporterCycleIndex.put(exporter.exporterId, (currentIndex + 1) % exporter.filterItems.size());
+        exporterCycleIndex.put(exporter.exporterId, (currentIndex + 1) % filterItems.size());
         return null;
     }
 
@@ -437,259 +471,261 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
      * Check if an item is available in the network
      */
     private boolean isItemAvailableInNetwork(String networkId, String itemHash) throws Exception {
-        List<StoredItem> networkItems = plugin.getStorageManager().getNetworkItems(networkId);
-        for (StoredItem item : networkItems) {
-            if (item.itemHash().equals(itemHash) && item.quantity() > 0) {
-                return true;
-            }
-        }
-        return false;
+        return plugin.getStorageManager().getItemQuantity(networkId, itemHash) > 0;
     }
 
     /**
-     * Export specific item with slot-specific routing for furnaces
+     * Container kinds that place exported items differently
      */
-    private void exportItemWithSlotRouting(ExporterData exporter, String itemHash, Container targetContainer) {
-        try {
-            // Check container type for specialized routing
-            Material containerType = targetContainer.getBlock().getType();
-            boolean isFurnace = containerType == Material.FURNACE || 
-                               containerType == Material.BLAST_FURNACE || 
-                               containerType == Material.SMOKER;
-            boolean isBrewingStand = containerType == Material.BREWING_STAND;
-
-            if (isFurnace) {
-                // Handle furnace slot routing
-                exportItemToFurnace(exporter, itemHash, targetContainer);
-            } else if (isBrewingStand) {
-                // Handle brewing stand slot routing
-                exportItemToBrewingStand(exporter, itemHash, targetContainer);
-            } else {
-                // Use generic export for other containers
-                exportItem(exporter, itemHash, targetContainer.getInventory());
-            }
-
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error in slot routing export: " + e.getMessage());
+    private enum ExportTarget {
+        GENERIC, FURNACE, BREWING_STAND;
+
+        static ExportTarget of(Material containerType) {
+            return switch (containerType) {
+                case FURNACE, BLAST_FURNACE, SMOKER -> FURNACE;
+                case BREWING_STAND -> BREWING_STAND;
+                default -> GENERIC;
+            };
         }
     }
 
     /**
-     * Export item to specific furnace slots based on filter slot targeting
+     * Export planned on the main thread, with the filter and brewing stand contents copied for the transfer pool
+     * Generic containers take up to the given number of stacks per cycle, slot routed containers always take one.
      */
-    private void exportItemToFurnace(ExporterData exporter, String itemHash, Container furnaceContainer) {
-        try {
-            // Get slot targeting information for this item
-            String slotTarget = getSlotTargetForItem(exporter.exporterId, itemHash);
+    private record ExportRequest(ExporterData exporter, Location containerLocation, ExportTarget target,
+                                 List<String> filterItems, ItemStack[] brewingContents, int stacks) {
+    }
 
-            // Retrieve up to one stack from the network
-            ItemStack retrievedItem = plugin.getStorageManager().retrieveItems(exporter.networkId, itemHash, 64);
-            
-            if (retrievedItem == null || retrievedItem.getAmount() == 0) {
-                return; // Nothing retrieved
-            }
+    /**
+     * Items retrieved from storage for an export, waiting to be placed in the container
+     * The items are empty if nothing was retrieved, the slot is -1 for containers without slot routing
+     */
+    private record ExportTransfer(ExportRequest request, List<ItemStack> items, int slot) {
+    }
 
-            Inventory furnaceInventory = furnaceContainer.getInventory();
-            int targetSlot;
+    /**
+     * Pick the item to export and retrieve it from storage, runs on the transfer pool
+     */
+    private ExportTransfer retrieveForExport(ExportRequest request) {
+        ExporterData exporter = request.exporter();
+        try {
+            String itemHash;
+            int slot = -1;
 
-            // Determine target slot based on filter type
-            if ("fuel".equals(slotTarget)) {
-                targetSlot = 1; // Fuel slot (bottom)
+            if (request.target() == ExportTarget.BREWING_STAND) {
+                PotentialExport selected = selectBrewingStandExport(request);
+                if (selected == null) {
+                    return new ExportTransfer(request, List.of(), -1);
+                }
+                itemHash = selected.itemHash();
+                slot = selected.targetSlot();
+            } else if (request.target() == ExportTarget.GENERIC) {
+                // Spread the stacks round-robin over the available filter items and retrieve them all in one operation
+                Map<String, Integer> stackCounts = new LinkedHashMap<>();
+                for (int i = 0; i < request.stacks(); i++) {
+                    String nextHash = getNextItemToExport(exporter, request.filterItems());
+                    if (nextHash == null) break;
+                    stackCounts.merge(nextHash, 1, Integer::sum);
+                }
+                if (stackCounts.isEmpty()) {
+                    return new ExportTransfer(request, List.of(), -1);
+                }
+                return new ExportTransfer(request, plugin.getStorageManager().retrieveStacks(exporter.networkId, stackCounts), -1);
             } else {
-                targetSlot = 0; // Input slot (top) - default for material and generic
+                itemHash = getNextItemToExport(exporter, request.filterItems());
+                if (itemHash == null) {
+                    return new ExportTransfer(request, List.of(), -1);
+                }
+                if (request.target() == ExportTarget.FURNACE) {
+                    // Fuel filters go to the fuel slot (bottom), anything else to the input slot (top)
+                    slot = "fuel".equals(getSlotTargetForItem(exporter.exporterId, itemHash)) ? 1 : 0;
+                }
             }
 
-            // Try to add to the specific furnace slot with furnace-aware limits
-            int leftoverAmount = addItemToSpecificFurnaceSlot(furnaceInventory, retrievedItem, targetSlot);
-
-            // Handle leftovers and logging
-            handleExportCompletion(exporter, retrievedItem, leftoverAmount
-            );
+            // Retrieve up to one stack from the network, it's held by the transfer until placed or returned
+            ItemStack retrievedItem = plugin.getStorageManager().retrieveItems(exporter.networkId, itemHash, 64);
+            return new ExportTransfer(request, retrievedItem != null ? List.of(retrievedItem) : List.of(), slot);
 
         } catch (Exception e) {
-            plugin.getLogger().severe("Error exporting to furnace: " + e.getMessage());
+            plugin.getLogger().severe("Error retrieving items for exporter " + exporter.exporterId + ": " + e.getMessage());
+            return new ExportTransfer(request, List.of(), -1);
         }
     }
 
     /**
-     * Export to brewing stand with integrated slot selection and export
+     * Pick the brewing stand slot to fill next, round-robin over the slots with space and items available
      */
-    private void exportBrewingStandWithSlotSelection(ExporterData exporter, Container brewingStandContainer) {
-        try {
-            // Parse brewing stand filters from exporter filter items
-            BrewingStandFilters brewingFilters = parseBrewingStandFilters(exporter.exporterId);
-            
-            Inventory brewingInventory = brewingStandContainer.getInventory();
-            
-            // Create a list of all possible exports with their priority
-            List<PotentialExport> potentialExports = new ArrayList<>();
-            
-            // Check blaze powder (fuel) - only if fuel slot has space
-            if (brewingFilters.fuelEnabled) {
-                ItemStack blazePowder = new ItemStack(Material.BLAZE_POWDER);
-                String blazeHash = plugin.getItemManager().generateItemHash(blazePowder);
-                if (isItemAvailableInNetwork(exporter.networkId, blazeHash) && 
-                    canPlaceItemInBrewingSlot(brewingInventory, blazePowder, 4)) {
-                    potentialExports.add(new PotentialExport(blazeHash, 4, "fuel"));
-                }
+    private PotentialExport selectBrewingStandExport(ExportRequest request) throws Exception {
+        ExporterData exporter = request.exporter();
+        ItemStack[] brewingContents = request.brewingContents();
+
+        // Parse brewing stand filters from exporter filter items
+        BrewingStandFilters brewingFilters = parseBrewingStandFilters(exporter.exporterId);
+
+        // Create a list of all possible exports with their priority
+        List<PotentialExport> potentialExports = new ArrayList<>();
+
+        // Check blaze powder (fuel) - only if fuel slot has space
+        if (brewingFilters.fuelEnabled) {
+            ItemStack blazePowder = new ItemStack(Material.BLAZE_POWDER);
+            String blazeHash = plugin.getItemManager().generateItemHash(blazePowder);
+            if (canPlaceItemInBrewingSlot(brewingContents, blazePowder, 4) &&
+                isItemAvailableInNetwork(exporter.networkId, blazeHash)) {
+                potentialExports.add(new PotentialExport(blazeHash, 4, "fuel"));
             }
-            
-            // Check ingredient filter - only if ingredient slot has space
-            if (brewingFilters.ingredientFilter != null) {
-                String ingredientHash = plugin.getItemManager().generateItemHash(brewingFilters.ingredientFilter);
-                if (isItemAvailableInNetwork(exporter.networkId, ingredientHash) && 
-                    canPlaceItemInBrewingSlot(brewingInventory, brewingFilters.ingredientFilter, 3)) {
-                    potentialExports.add(new PotentialExport(ingredientHash, 3, "ingredient"));
-                }
+        }
+
+        // Check ingredient filter - only if ingredient slot has space
+        if (brewingFilters.ingredientFilter != null) {
+            String ingredientHash = plugin.getItemManager().generateItemHash(brewingFilters.ingredientFilter);
+            if (canPlaceItemInBrewingSlot(brewingContents, brewingFilters.ingredientFilter, 3) &&
+                isItemAvailableInNetwork(exporter.networkId, ingredientHash)) {
+                potentialExports.add(new PotentialExport(ingredientHash, 3, "ingredient"));
             }
-            
-            // Check each bottle filter independently - only if their specific slots have space
-            for (int i = 0; i < 3; i++) {
-                if (brewingFilters.bottleFilters[i] != null) {
-                    String bottleHash = plugin.getItemManager().generateItemHash(brewingFilters.bottleFilters[i]);
-                    if (isItemAvailableInNetwork(exporter.networkId, bottleHash) && 
-                        canPlaceItemInBrewingSlot(brewingInventory, brewingFilters.bottleFilters[i], i)) {
-                        potentialExports.add(new PotentialExport(bottleHash, i, "bottle " + (i + 1)));
-                    }
+        }
+
+        // Check each bottle filter independently - only if their specific slots have space
+        for (int i = 0; i < 3; i++) {
+            if (brewingFilters.bottleFilters[i] != null) {
+                String bottleHash = plugin.getItemManager().generateItemHash(brewingFilters.bottleFilters[i]);
+                if (canPlaceItemInBrewingSlot(brewingContents, brewingFilters.bottleFilters[i], i) &&
+                    isItemAvailableInNetwork(exporter.networkId, bottleHash)) {
+                    potentialExports.add(new PotentialExport(bottleHash, i, "bottle " + (i + 1)));
                 }
             }
-            
-            // If we have potential exports, use round-robin to cycle through them
-            if (!potentialExports.isEmpty()) {
-                // Get current cycle index for this exporter (reuse existing mechanism)
-                int currentIndex = exporterCycleIndex.get(exporter.exporterId);
-                PotentialExport selectedExport = potentialExports.get(currentIndex % potentialExports.size());
-                
-                // Update cycle index for next time
-                exporterCycleIndex.put(exporter.exporterId, (currentIndex + 1) % potentialExports.size());
-                
-                // Now perform the actual export to the specific slot
-                exportItemToSpecificBrewingSlot(exporter, selectedExport.itemHash, selectedExport.targetSlot, brewingStandContainer);
-            }
-            
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error in brewing stand slot selection: " + e.getMessage());
         }
+
+        if (potentialExports.isEmpty()) {
+            return null;
+        }
+
+        // Use round-robin to cycle through them (reuse existing mechanism)
+        int currentIndex = exporterCycleIndex.getOrDefault(exporter.exporterId, 0);
+        exporterCycleIndex.put(exporter.exporterId, (currentIndex + 1) % potentialExports.size());
+        return potentialExports.get(currentIndex % potentialExports.size());
     }
 
     /**
-     * Export item to a specific brewing stand slot (knows the exact slot to target)
+     * Place retrieved items in the container, runs on the main thread
+     * Whatever the container no longer takes, because it was changed or broken meanwhile, goes back to storage
      */
-    private void exportItemToSpecificBrewingSlot(ExporterData exporter, String itemHash, int targetSlot, Container brewingStandContainer) {
+    private void commitExport(ExportTransfer transfer) {
+        ExportRequest request = transfer.request();
+        ExporterData exporter = request.exporter();
+        exportsInFlight.remove(exporter.exporterId);
+
+        if (transfer.items().isEmpty()) {
+            return; // Nothing retrieved
+        }
+
+        Inventory targetInventory = null;
         try {
-            // Retrieve item from network first
-            ItemStack retrievedItem = plugin.getStorageManager().retrieveItems(exporter.networkId, itemHash, 64);
-            
-            if (retrievedItem == null || retrievedItem.getAmount() == 0) {
-                return;
+            Container targetContainer = getTargetContainer(exporter.location.getBlock());
+            if (targetContainer != null && targetContainer.getLocation().equals(request.containerLocation())
+                    && ExportTarget.of(targetContainer.getBlock().getType()) == request.target()) {
+                targetInventory = targetContainer.getInventory();
             }
+        } catch (Exception e) {
+            plugin.getLogger().severe("Error exporting item: " + e.getMessage());
+        }
 
-            // Limit item amount to slot-appropriate stack size
-            int maxAmount = getBrewingStandSlotMaxAmount(targetSlot, retrievedItem.getType());
-            if (retrievedItem.getAmount() > maxAmount) {
-                // Split the stack - keep what we can use, return the rest
-                ItemStack excess = retrievedItem.clone();
-                excess.setAmount(retrievedItem.getAmount() - maxAmount);
-                retrievedItem.setAmount(maxAmount);
-                
-                List<ItemStack> toReturn = new ArrayList<>();
-                toReturn.add(excess);
-                plugin.getStorageManager().storeItems(exporter.networkId, toReturn);
+        List<ItemStack> leftovers = new ArrayList<>();
+        boolean exported = false;
+        for (ItemStack retrievedItem : transfer.items()) {
+            int leftoverAmount = retrievedItem.getAmount();
+            if (targetInventory != null) {
+                try {
+                    leftoverAmount = switch (request.target()) {
+                        case GENERIC -> addItemWithStackOptimization(targetInventory, retrievedItem);
+                        case FURNACE -> addItemToSpecificFurnaceSlot(targetInventory, retrievedItem, transfer.slot());
+                        case BREWING_STAND -> addItemToSpecificBrewingSlot(targetInventory, retrievedItem, transfer.slot());
+                    };
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Error exporting item: " + e.getMessage());
+                }
             }
 
-            // Try to place in the target slot
-            Inventory brewingInventory = brewingStandContainer.getInventory();
-            ItemStack existingItem = brewingInventory.getItem(targetSlot);
-            
-            int leftoverAmount = 0;
-            if (existingItem == null || existingItem.getType() == Material.AIR) {
-                // Slot is empty, place the item
-                brewingInventory.setItem(targetSlot, retrievedItem);
-            } else if (existingItem.isSimilar(retrievedItem)) {
-                // Slot has same item, try to stack
-                int spaceAvailable = existingItem.getMaxStackSize() - existingItem.getAmount();
-                int amountToAdd = Math.min(spaceAvailable, retrievedItem.getAmount());
-                
-                if (amountToAdd > 0) {
-                    existingItem.setAmount(existingItem.getAmount() + amountToAdd);
-                    leftoverAmount = retrievedItem.getAmount() - amountToAdd;
-                } else {
-                    leftoverAmount = retrievedItem.getAmount(); // No space
-                }
-            } else {
-                // Slot has different item, can't place
-                leftoverAmount = retrievedItem.getAmount();
+            if (leftoverAmount > 0) {
+                ItemStack leftoverStack = retrievedItem.clone();
+                leftoverStack.setAmount(leftoverAmount);
+                leftovers.add(leftoverStack);
             }
+            exported |= leftoverAmount < retrievedItem.getAmount();
+        }
 
-            // Handle completion and leftovers
-            handleExportCompletion(exporter, retrievedItem, leftoverAmount);
+        // If there's leftover, put it back in the network
+        if (!leftovers.isEmpty()) {
+            returnToNetwork(exporter, leftovers);
+        }
 
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error exporting to specific brewing stand slot: " + e.getMessage());
+        // Calculate what was actually exported
+        if (exported) {
+            exporter.lastExport = System.currentTimeMillis();
+            plugin.getStorageManager().getTransfers().submit(() -> updateLastExport(exporter.exporterId));
         }
+
+        // Refresh any open terminals
+        plugin.getGUIManager().refreshNetworkTerminals(exporter.networkId);
     }
 
     /**
-     * Export item to specific brewing stand slots based on brewing stand filter settings
+     * Put retrieved items back in storage when the export can't be committed anymore
      */
-    private void exportItemToBrewingStand(ExporterData exporter, String itemHash, Container brewingStandContainer) {
-        try {
-            // Parse brewing stand filters from exporter filter items
-            BrewingStandFilters brewingFilters = parseBrewingStandFilters(exporter.exporterId);
-            
-            // Retrieve item from network first (similar to furnace approach)
-            ItemStack retrievedItem = plugin.getStorageManager().retrieveItems(exporter.networkId, itemHash, 64);
+    private void abortExport(ExportTransfer transfer) {
+        ExporterData exporter = transfer.request().exporter();
+        exportsInFlight.remove(exporter.exporterId);
 
-            if (retrievedItem == null || retrievedItem.getAmount() == 0) {
-                return; // Nothing retrieved
-            }
-
-            Material itemType = retrievedItem.getType();
-
-            // Determine target slot based on item type and filters
-            int targetSlot = getTargetSlot(itemType, brewingFilters);
+        if (transfer.items().isEmpty()) {
+            return;
+        }
 
-            if (targetSlot == -1) {
-                // No valid target slot - return items to network
-                List<ItemStack> toReturn = new ArrayList<>();
-                toReturn.add(retrievedItem);
-                plugin.getStorageManager().storeItems(exporter.networkId, toReturn);
-                return;
+        try {
+            List<ItemStack> remainders = plugin.getStorageManager().storeItems(exporter.networkId, new ArrayList<>(transfer.items()));
+            for (ItemStack remainder : remainders) {
+                plugin.getLogger().warning("Lost " + remainder.getAmount() + " " + remainder.getType()
+                        + " returning an unfinished export of " + exporter.exporterId + " to storage");
             }
-
-            // Try to place in the target slot with proper leftover handling
-            Inventory brewingInventory = brewingStandContainer.getInventory();
-            int leftoverAmount = addItemToSpecificBrewingSlot(brewingInventory, retrievedItem, targetSlot);
-
-            // Handle completion and leftovers (single leftover handling)
-            handleExportCompletion(exporter, retrievedItem, leftoverAmount
-            );
-
         } catch (Exception e) {
-            plugin.getLogger().severe("Error exporting to brewing stand: " + e.getMessage());
+            plugin.getLogger().severe("Error returning unfinished export of " + exporter.exporterId + ": " + e.getMessage());
         }
     }
 
-    private static int getTargetSlot(Material itemType, BrewingStandFilters brewingFilters) {
-        int targetSlot = -1;
+    /**
+     * Store items back in the exporter's network off the main thread, dropping anything that no longer fits at the exporter
+     */
+    private void returnToNetwork(ExporterData exporter, List<ItemStack> items) {
+        plugin.getStorageManager().getTransfers().submit(() -> {
+            List<ItemStack> toReturn = new ArrayList<>(items);
+            try {
+                return plugin.getStorageManager().storeItems(exporter.networkId, toReturn);
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error returning export leftovers to network " + exporter.networkId + ": " + e.getMessage());
+                return toReturn;
+            }
+        }, remainders -> {
+            for (ItemStack remainder : remainders) {
+                exporter.location.getWorld().dropItemNaturally(exporter.location, remainder);
+            }
+        }, remainders -> {
+            for (ItemStack remainder : remainders) {
+                plugin.getLogger().warning("Lost " + remainder.getAmount() + " " + remainder.getType()
+                        + " that didn't fit back in network " + exporter.networkId);
+            }
+        });
+    }
 
-        // Determine target slot based on item type and filters
-        if (itemType == Material.BLAZE_POWDER && brewingFilters.fuelEnabled) {
-            targetSlot = 4; // Fuel slot
-        } else if (brewingFilters.ingredientFilter != null &&
-                  itemType == brewingFilters.ingredientFilter.getType()) {
-            targetSlot = 3; // Ingredient slot
-        } else {
-            // Check bottle filters (slots 0, 1, 2)
-            for (int i = 0; i < 3; i++) {
-                if (brewingFilters.bottleFilters[i] != null &&
-                    itemType == brewingFilters.bottleFilters[i].getType()) {
-                    targetSlot = i;
-                    break;
-                }
+    /**
+     * Copy a container's contents so they can be read off the main thread
+     */
+    private static ItemStack[] snapshotContents(Inventory inventory) {
+        ItemStack[] contents = inventory.getContents();
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] != null) {
+                contents[i] = contents[i].clone();
             }
         }
-        return targetSlot;
+        return contents;
     }
 
     /**
@@ -889,85 +925,6 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
         return "generic"; // Default fallback
     }
 
-    /**
-     * Handle export completion (leftovers, logging, etc.)
-     */
-    private void handleExportCompletion(ExporterData exporter, ItemStack retrievedItem, 
-                                       int leftoverAmount) {
-        try {
-            // If there's leftover, put it back in the network
-            if (leftoverAmount > 0) {
-                ItemStack leftoverStack = retrievedItem.clone();
-                leftoverStack.setAmount(leftoverAmount);
-
-                List<ItemStack> toReturn = new ArrayList<>();
-                toReturn.add(leftoverStack);
-                plugin.getStorageManager().storeItems(exporter.networkId, toReturn);
-
-                // Calculate what was actually exported
-                int exported = retrievedItem.getAmount() - leftoverAmount;
-                if (exported > 0) {
-                    exporter.lastExport = System.currentTimeMillis();
-                    updateLastExport(exporter.exporterId);
-                }
-            } else {
-                // Everything was exported successfully
-                exporter.lastExport = System.currentTimeMillis();
-                updateLastExport(exporter.exporterId);
-            }
-
-            // Refresh any open terminals
-            plugin.getGUIManager().refreshNetworkTerminals(exporter.networkId);
-
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error handling export completion: " + e.getMessage());
-        }
-    }
-
-    /**
-     * FIXED: Export an item to the target inventory with stack optimization (legacy method for non-furnaces)
-     */
-    private void exportItem(ExporterData exporter, String itemHash, Inventory targetInventory) {
-        try {
-            // Retrieve up to one stack from the network
-            ItemStack retrievedItem = plugin.getStorageManager().retrieveItems(exporter.networkId, itemHash, 64);
-
-            if (retrievedItem == null || retrievedItem.getAmount() == 0) {
-                return; // Nothing retrieved
-            }
-
-            // Try to add to target inventory with stack optimization
-            int leftoverAmount = addItemWithStackOptimization(targetInventory, retrievedItem);
-
-            // If there's leftover, put it back in the network
-            if (leftoverAmount > 0) {
-                ItemStack leftoverStack = retrievedItem.clone();
-                leftoverStack.setAmount(leftoverAmount);
-
-                List<ItemStack> toReturn = new ArrayList<>();
-                toReturn.add(leftoverStack);
-                plugin.getStorageManager().storeItems(exporter.networkId, toReturn);
-
-                // Calculate what was actually exported
-                int exported = retrievedItem.getAmount() - leftoverAmount;
-                if (exported > 0) {
-                    exporter.lastExport = System.currentTimeMillis();
-                    updateLastExport(exporter.exporterId);
-                }
-            } else {
-                // Everything was exported successfully
-                exporter.lastExport = System.currentTimeMillis();
-                updateLastExport(exporter.exporterId);
-            }
-
-            // Refresh any open terminals
-            plugin.getGUIManager().refreshNetworkTerminals(exporter.networkId);
-
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error exporting item: " + e.getMessage());
-        }
-    }
-
     /**
      * Get the target container that the exporter is physically attached to
      */
@@ -1011,8 +968,11 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
             }
         });
 
-        activeExporters.remove(exporterId);
+        ExporterData removed = activeExporters.remove(exporterId);
         exporterCycleIndex.remove(exporterId);
+        if (removed != null) {
+            plugin.getNetworkManager().getLocationIndex().invalidate(removed.location);
+        }
     }
 
     /**
@@ -1059,18 +1019,18 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
             // Add fuel filters
             if (!fuelItems.isEmpty()) {
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "INSERT INTO exporter_filters (exporter_id, item_hash, item_data, filter_type, slot_target) VALUES (?, ?, ?, 'whitelist', 'fuel')")) {
+                        "INSERT INTO exporter_filters (exporter_id, item_hash, item_bytes, filter_type, slot_target) VALUES (?, ?, ?, 'whitelist', 'fuel')")) {
 
                     for (ItemStack item : fuelItems) {
                         ItemStack template = item.clone();
                         template.setAmount(1);
 
                         String itemHash = plugin.getItemManager().generateItemHash(template);
-                        String itemData = plugin.getStorageManager().serializeItemStack(template);
+                        byte[] itemData = plugin.getStorageManager().serializeItemStack(template);
 
                         stmt.setString(1, exporterId);
                         stmt.setString(2, itemHash);
-                        stmt.setString(3, itemData);
+                        stmt.setBytes(3, itemData);
                         stmt.addBatch();
                     }
                     stmt.executeBatch();
@@ -1080,18 +1040,18 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
             // Add material filters
             if (!materialItems.isEmpty()) {
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "INSERT INTO exporter_filters (exporter_id, item_hash, item_data, filter_type, slot_target) VALUES (?, ?, ?, 'whitelist', 'material')")) {
+                        "INSERT INTO exporter_filters (exporter_id, item_hash, item_bytes, filter_type, slot_target) VALUES (?, ?, ?, 'whitelist', 'material')")) {
 
                     for (ItemStack item : materialItems) {
                         ItemStack template = item.clone();
                         template.setAmount(1);
 
                         String itemHash = plugin.getItemManager().generateItemHash(template);
-                        String itemData = plugin.getStorageManager().serializeItemStack(template);
+                        byte[] itemData = plugin.getStorageManager().serializeItemStack(template);
 
                         stmt.setString(1, exporterId);
                         stmt.setString(2, itemHash);
-                        stmt.setString(3, itemData);
+                        stmt.setBytes(3, itemData);
                         stmt.addBatch();
                     }
                     stmt.executeBatch();
@@ -1126,12 +1086,12 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
 
         try (Connection conn = plugin.getDatabaseManager().getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT item_data, slot_target FROM exporter_filters WHERE exporter_id = ? AND item_data IS NOT NULL")) {
+                     "SELECT item_data, item_bytes, slot_target FROM exporter_filters WHERE exporter_id = ?")) {
 
             stmt.setString(1, exporterId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    String itemData = rs.getString("item_data");
+                    byte[] itemData = StorageManager.readItemBytes(rs);
                     String slotTarget = rs.getString("slot_target");
                     
                     ItemStack item = plugin.getStorageManager().deserializeItemStack(itemData);
@@ -1173,7 +1133,7 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
             // Add new filters with both hashes and item data
             if (!filterItems.isEmpty()) {
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "INSERT INTO exporter_filters (exporter_id, item_hash, item_data, filter_type) VALUES (?, ?, ?, 'whitelist')")) {
+                        "INSERT INTO exporter_filters (exporter_id, item_hash, item_bytes, filter_type) VALUES (?, ?, ?, 'whitelist')")) {
 
                     for (ItemStack item : filterItems) {
                         // Ensure we store single-item templates
@@ -1181,11 +1141,11 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
                         template.setAmount(1);
 
                         String itemHash = plugin.getItemManager().generateItemHash(template);
-                        String itemData = plugin.getStorageManager().serializeItemStack(template); // Store actual item data
+                        byte[] itemData = plugin.getStorageManager().serializeItemStack(template); // Store actual item data
 
                         stmt.setString(1, exporterId);
                         stmt.setString(2, itemHash);
-                        stmt.setString(3, itemData);
+                        stmt.setBytes(3, itemData);
                         stmt.addBatch();
                     }
                     stmt.executeBatch();
@@ -1212,12 +1172,12 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
 
         try (Connection conn = plugin.getDatabaseManager().getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT item_data FROM exporter_filters WHERE exporter_id = ? AND item_data IS NOT NULL")) {
+                     "SELECT item_data, item_bytes FROM exporter_filters WHERE exporter_id = ?")) {
 
             stmt.setString(1, exporterId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    String itemData = rs.getString("item_data");
+                    byte[] itemData = StorageManager.readItemBytes(rs);
                     ItemStack item = plugin.getStorageManager().deserializeItemStack(itemData);
                     if (item != null) {
                         // Ensure it's a single-item template
@@ -1251,6 +1211,7 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
                     ExporterData disconnectedData = new ExporterData(exporter.exporterId, "UNCONNECTED", exporter.location, false); // Disable when disconnected
                     disconnectedData.filterItems.addAll(exporter.filterItems); // Preserve filters
                     activeExporters.put(exporter.exporterId, disconnectedData);
+                    plugin.getNetworkManager().getLocationIndex().invalidate(exporter.location);
 
                 } catch (SQLException e) {
                     plugin.getLogger().warning("Failed to disconnect exporter " + exporter.exporterId + ": " + e.getMessage());
@@ -1275,13 +1236,18 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
         ExporterData exporterData = new ExporterData(exporterId, finalNetworkId, location, false);
         activeExporters.put(exporterId, exporterData);
         exporterCycleIndex.put(exporterId, 0); // Initialize cycle index
+        exportScheduler.add(exporterId);
+        plugin.getNetworkManager().getLocationIndex().invalidate(location);
 
         return exporterId;
     }
 
     public void updateExporterNetworkAssignments() {
+        updateExporterNetworkAssignments(activeExporters.values());
+    }
 
-        for (ExporterData exporter : activeExporters.values()) {
+    private void updateExporterNetworkAssignments(Collection<ExporterData> exporters) {
+        for (ExporterData exporter : exporters) {
             // Check if current network is valid
             boolean currentNetworkValid = exporter.networkId != null &&
                     !"UNCONNECTED".equals(exporter.networkId) &&
@@ -1303,6 +1269,7 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
                         ExporterData updatedData = new ExporterData(exporter.exporterId, newNetworkId, exporter.location, exporter.enabled);
                         updatedData.filterItems.addAll(exporter.filterItems);
                         activeExporters.put(exporter.exporterId, updatedData);
+                        plugin.getNetworkManager().getLocationIndex().invalidate(exporter.location);
 
                     } catch (SQLException e) {
                         plugin.getLogger().warning("Failed to reconnect exporter " + exporter.exporterId + ": " + e.getMessage());
@@ -1319,6 +1286,7 @@ public class ExporterManager implements org.jamesphbennett.modularstoragesystem.
                         ExporterData disconnectedData = new ExporterData(exporter.exporterId, "UNCONNECTED", exporter.location, false);
                         disconnectedData.filterItems.addAll(exporter.filterItems);
                         activeExporters.put(exporter.exporterId, disconnectedData);
+                        plugin.getNetworkManager().getLocationIndex().invalidate(exporter.location);
 
                     } catch (SQLException e) {
                         plugin.getLogger().warning("Failed to disconnect exporter " + exporter.exporterId + ": " + e.getMessage());
@@ -10,6 +10,9 @@ import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.network.NetworkChange;
+import org.jamesphbennett.modularstoragesystem.storage.StorageManager;
+import org.jamesphbennett.modularstoragesystem.utils.TickScheduler;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -24,8 +27,21 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
     private final Map<String, ImporterData> activeImporters = new ConcurrentHashMap<>();
     private final Map<String, Integer> importerCycleIndex = new ConcurrentHashMap<>();
 
+    // Importers spread over the ticks of the import interval
+    private final TickScheduler<String> importScheduler;
+
+    // Importers with a transfer between storing items and taking them from the container
+    private final Set<String> importsInFlight = ConcurrentHashMap.newKeySet();
+
+    // Importer ID -> filter hash per brewing stand bottle slot, null for slots without a filter
+    private final Map<String, String[]> brewingSlotFilters = new ConcurrentHashMap<>();
+
+    // XP taken per bottle, more than the max 11 XP an experience bottle drops to ensure a cost
+    private static final float XP_PER_BOTTLE = 12.0f;
+
     public ImporterManager(ModularStorageSystem plugin) {
         this.plugin = plugin;
+        this.importScheduler = new TickScheduler<>(plugin.getConfigManager().getExportTickInterval());
         loadImporters();
         startImportTask();
         // Register as a listener for network updates
@@ -52,6 +68,24 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
         updateImporterNetworkAssignments();
     }
 
+    /**
+     * Only the importers of a network that lost blocks, was merged away or was removed need to be re-checked
+     */
+    @Override
+    public void onNetworkChanged(NetworkChange change) {
+        if (!change.isRemoved() && change.getRemovedBlocks().isEmpty() && change.getMergedNetworks().isEmpty()) {
+            return;
+        }
+
+        List<ImporterData> affected = new ArrayList<>();
+        for (ImporterData importer : activeImporters.values()) {
+            if (change.getNetworkId().equals(importer.networkId) || change.getMergedNetworks().contains(importer.networkId)) {
+                affected.add(importer);
+            }
+        }
+        updateImporterNetworkAssignments(affected);
+    }
+
     /**
      * Data class for importer information
      */
@@ -104,6 +138,7 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
 
                         activeImporters.put(importerId, data);
                         importerCycleIndex.put(importerId, 0);
+                        importScheduler.add(importerId);
                     }
                 }
             }
@@ -134,31 +169,31 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
      * Start the periodic import task with rate limiting
      */
     private void startImportTask() {
-        int tickInterval = plugin.getConfigManager().getExportTickInterval(); // Use same interval as exporters
-
+        // Runs every tick, each importer comes up once per interval on the tick of its phase
         plugin.getServer().getScheduler().runTaskTimer(plugin, () -> {
             // Get max importers to process per tick from config
             int maxImportersPerTick = plugin.getConfigManager().getMaxImportersPerTick();
-            int processedCount = 0;
-
-            // Process importers with rate limiting
-            for (ImporterData importer : activeImporters.values()) {
-                if (importer.enabled) {
-                    // Check if we've hit the rate limit
-                    if (processedCount >= maxImportersPerTick) {
-                        break; // Stop processing this tick, resume next tick
-                    }
+            long budgetNanos = plugin.getConfigManager().getImporterExporterTickBudgetNanos();
 
-                    processImport(importer);
-                    processedCount++;
+            // Process due importers within the tick limits, the rest carries over to the next tick
+            TickScheduler.Tick tick = importScheduler.tick(importerId -> {
+                ImporterData importer = activeImporters.get(importerId);
+                if (importer == null) {
+                    return TickScheduler.Visit.REMOVED;
+                }
+                if (!importer.enabled || importsInFlight.contains(importerId)) {
+                    return TickScheduler.Visit.SKIPPED;
                 }
-            }
+
+                processImport(importer);
+                return TickScheduler.Visit.PROCESSED;
+            }, maxImportersPerTick, budgetNanos);
 
             // Debug log if we hit the rate limit
-            if (processedCount >= maxImportersPerTick && activeImporters.size() > processedCount) {
-                plugin.debugLog("Importer rate limit reached: processed " + processedCount + " of " + activeImporters.size() + " active importers");
+            if (tick.carried() > 0) {
+                plugin.debugLog("Importer tick limit reached: processed " + tick.processed() + ", carrying " + tick.carried() + " importers to the next tick");
             }
-        }, tickInterval, tickInterval);
+        }, 1L, 1L);
 
         // Network assignment updates are now handled via NetworkUpdateListener callbacks
         // REMOVED: Periodic validation timer (now event-driven)
@@ -279,337 +314,334 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
                 return; // No valid target
             }
 
-            Inventory targetInventory = targetContainer.getInventory();
-
-            // Check container type for specialized slot handling
-            Material containerType = targetContainer.getBlock().getType();
-            boolean isFurnace = containerType == Material.FURNACE || 
-                               containerType == Material.BLAST_FURNACE || 
-                               containerType == Material.SMOKER;
-            boolean isBrewingStand = containerType == Material.BREWING_STAND;
-            
-            if (isFurnace) {
-                // Import from furnace output slot only
-                importFromFurnace(importer, targetContainer);
-            } else if (isBrewingStand) {
-                // Import from brewing stand bottom potion slots only
-                importFromBrewingStand(importer, targetContainer);
-            } else {
-                // Import from any slot in other containers
-                importFromGenericContainer(importer, targetInventory);
+            // Take the items to import out of the container, they are stored off the main thread and whatever doesn't fit comes back
+            ImportRequest request = planImport(importer, targetContainer);
+            if (request == null) {
+                return; // Nothing to import
             }
 
+            importsInFlight.add(importer.importerId);
+            plugin.getStorageManager().getTransfers().submit(() -> storeForImport(request), this::commitImport, this::abortImport);
+
         } catch (Exception e) {
             plugin.getLogger().severe("Error processing import for " + importer.importerId + ": " + e.getMessage());
         }
     }
 
     /**
-     * Import from furnace output slot (slot 2)
+     * Container slot imported from, with the items taken out of it
      */
-    private void importFromFurnace(ImporterData importer, Container furnaceContainer) {
-        try {
-            Inventory furnaceInventory = furnaceContainer.getInventory();
-            int outputSlot = 2; // Furnace output slot
-
-            ItemStack outputItem = furnaceInventory.getItem(outputSlot);
-            if (outputItem == null || outputItem.getType().isAir()) {
-                // Even if no output, check for XP bottling
-                if (importer.bottleXp) {
-                    bottleFurnaceXp(importer, furnaceContainer);
-                }
-                return; // No items to import
-            }
-
-            // Check filter if enabled
-            if (!importer.filterItems.isEmpty()) {
-                String itemHash = plugin.getItemManager().generateItemHash(outputItem);
-                if (!importer.filterItems.contains(itemHash)) {
-                    // Item not in filter, but still check for XP bottling
-                    if (importer.bottleXp) {
-                        bottleFurnaceXp(importer, furnaceContainer);
-                    }
-                    return; // Item not in filter
-                }
-            }
+    private record ImportSlot(int slot, ItemStack item) {
+    }
 
-            // Try to store the item in the network
-            List<ItemStack> itemsToStore = new ArrayList<>();
-            itemsToStore.add(outputItem.clone());
+    /**
+     * Import planned on the main thread, its items and XP are already taken from the container
+     */
+    private record ImportRequest(ImporterData importer, Location containerLocation, List<ImportSlot> slots, int bottlesToMake) {
+    }
 
-            List<ItemStack> leftoverItems = plugin.getStorageManager().storeItems(importer.networkId, itemsToStore);
+    /**
+     * Items stored for an import, whatever wasn't stored goes back to the container
+     *
+     * @param stored  amount stored per slot of the request
+     * @param bottled experience bottles made from the furnace's XP
+     */
+    private record ImportTransfer(ImportRequest request, int[] stored, int bottled) {
+    }
 
-            // Calculate what was actually imported
-            int originalAmount = outputItem.getAmount();
-            int leftoverAmount = leftoverItems.isEmpty() ? 0 : leftoverItems.getFirst().getAmount();
-            int importedAmount = originalAmount - leftoverAmount;
+    /**
+     * Pick the container slots to import from and take their items out, runs on the main thread
+     * Reserving the items before they are stored means no one else can take them from the container meanwhile.
+     */
+    private ImportRequest planImport(ImporterData importer, Container targetContainer) {
+        Inventory targetInventory = targetContainer.getInventory();
+        Material containerType = targetContainer.getBlock().getType();
+        List<ImportSlot> slots = new ArrayList<>();
+        int bottlesToMake = 0;
+
+        if (containerType == Material.FURNACE || containerType == Material.BLAST_FURNACE || containerType == Material.SMOKER) {
+            // Import from furnace output slot only
+            int outputSlot = 2;
+            ItemStack outputItem = targetInventory.getItem(outputSlot);
+            if (outputItem != null && !outputItem.getType().isAir() && isInImportFilter(importer, outputItem)) {
+                slots.add(new ImportSlot(outputSlot, outputItem.clone()));
+            }
 
-            if (importedAmount > 0) {
-                // Remove imported items from furnace
-                if (leftoverAmount == 0) {
-                    furnaceInventory.setItem(outputSlot, null);
-                } else {
-                    outputItem.setAmount(leftoverAmount);
-                    furnaceInventory.setItem(outputSlot, outputItem);
+            // Bottle the furnace's XP, even if there's no output to import, as far as the network has glass bottles
+            if (importer.bottleXp && targetContainer instanceof org.bukkit.block.Furnace furnace) {
+                bottlesToMake = Math.min((int) (getStoredXp(furnace) / XP_PER_BOTTLE), getGlassBottlesAvailable(importer));
+                if (bottlesToMake > 0) {
+                    consumeXp(furnace, bottlesToMake * XP_PER_BOTTLE);
                 }
+            }
+        } else if (containerType == Material.BREWING_STAND) {
+            // Import from brewing stand bottom potion slots only
+            for (int slot = 0; slot < 3; slot++) {
+                ItemStack potionItem = targetInventory.getItem(slot);
+                if (potionItem == null || potionItem.getType().isAir()) continue;
+                if (!importer.filterItems.isEmpty() && !isBrewingStandItemAllowed(importer.importerId, potionItem, slot)) {
+                    continue; // Item not in filter for this slot
+                }
+                slots.add(new ImportSlot(slot, potionItem.clone()));
+            }
+        } else {
+            // Import from the configured number of slots per cycle in other containers, round-robin style
+            int currentIndex = importerCycleIndex.getOrDefault(importer.importerId, 0);
+            int inventorySize = targetInventory.getSize();
+            int maxSlots = plugin.getConfigManager().getImporterStacksPerCycle();
 
-                importer.lastImport = System.currentTimeMillis();
-                updateLastImport(importer.importerId);
+            for (int i = 0; i < inventorySize && slots.size() < maxSlots; i++) {
+                int checkIndex = (currentIndex + i) % inventorySize;
+                ItemStack slotItem = targetInventory.getItem(checkIndex);
+                if (slotItem == null || slotItem.getType().isAir() || !isInImportFilter(importer, slotItem)) {
+                    continue;
+                }
 
-                // Refresh any open terminals
-                plugin.getGUIManager().refreshNetworkTerminals(importer.networkId);
+                slots.add(new ImportSlot(checkIndex, slotItem.clone()));
             }
 
-            // After importing items, check for XP bottling
-            if (importer.bottleXp) {
-                bottleFurnaceXp(importer, furnaceContainer);
-            }
+            // Continue after the last imported slot next time, or after the current index if there was nothing
+            int nextIndex = slots.isEmpty() ? currentIndex : slots.getLast().slot();
+            importerCycleIndex.put(importer.importerId, (nextIndex + 1) % Math.max(1, inventorySize));
+        }
 
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error importing from furnace: " + e.getMessage());
+        if (slots.isEmpty() && bottlesToMake == 0) {
+            return null;
         }
+
+        for (ImportSlot slot : slots) {
+            targetInventory.setItem(slot.slot(), null);
+        }
+        return new ImportRequest(importer, targetContainer.getLocation(), slots, bottlesToMake);
     }
 
     /**
-     * Bottle XP from a furnace if enough XP is available
+     * Check an item against the importer's filter, no filters means import everything
      */
-    private void bottleFurnaceXp(ImporterData importer, Container furnaceContainer) {
-        try {
-            if (!importer.enabled || !importer.bottleXp) {
-                return;
-            }
+    private boolean isInImportFilter(ImporterData importer, ItemStack item) {
+        return importer.filterItems.isEmpty() || importer.filterItems.contains(plugin.getItemManager().generateItemHash(item));
+    }
 
-            if (!(furnaceContainer instanceof org.bukkit.block.Furnace furnace)) {
-                return; // Not a furnace
-            }
+    /**
+     * Get the glass bottles stored in the importer's network, from its item index
+     */
+    private int getGlassBottlesAvailable(ImporterData importer) {
+        try {
+            String glassBottleHash = plugin.getItemManager().generateItemHash(new ItemStack(Material.GLASS_BOTTLE, 1));
+            return plugin.getStorageManager().getItemQuantity(importer.networkId, glassBottleHash);
+        } catch (Exception e) {
+            plugin.getLogger().warning("Error checking glass bottles for " + importer.importerId + ": " + e.getMessage());
+            return 0;
+        }
+    }
 
-            // Calculate total XP from recipes used
-            Map<org.bukkit.inventory.CookingRecipe<?>, Integer> recipesUsed = furnace.getRecipesUsed();
-            if (recipesUsed.isEmpty()) {
-                return; // No XP to bottle
-            }
+    /**
+     * Store the reserved items in the network, runs on the transfer pool
+     */
+    private ImportTransfer storeForImport(ImportRequest request) {
+        ImporterData importer = request.importer();
+        List<ImportSlot> slots = request.slots();
+        int[] stored = new int[slots.size()];
+
+        // Store every slot in one operation
+        List<ItemStack> itemsToStore = new ArrayList<>();
+        for (int i = 0; i < slots.size(); i++) {
+            itemsToStore.add(slots.get(i).item().clone());
+            stored[i] = slots.get(i).item().getAmount();
+        }
 
-            float totalXp = 0.0f;
-            for (Map.Entry<org.bukkit.inventory.CookingRecipe<?>, Integer> entry : recipesUsed.entrySet()) {
-                totalXp += entry.getKey().getExperience() * entry.getValue();
-            }
+        if (!itemsToStore.isEmpty()) {
+            try {
+                List<ItemStack> leftoverItems = plugin.getStorageManager().storeItems(importer.networkId, itemsToStore);
 
-            // Check if we have enough XP (12 XP minimum for one bottle)
-            // We take 12 XP per bottle (more than the max 11 XP drop) to ensure a cost
-            if (totalXp < 12.0f) {
-                return; // Not enough XP
+                // Charge what didn't fit to the matching slots, last slot first so earlier slots empty completely
+                for (ItemStack leftover : leftoverItems) {
+                    int remaining = leftover.getAmount();
+                    for (int i = slots.size() - 1; i >= 0 && remaining > 0; i--) {
+                        if (stored[i] > 0 && slots.get(i).item().isSimilar(leftover)) {
+                            int unstored = Math.min(remaining, stored[i]);
+                            stored[i] -= unstored;
+                            remaining -= unstored;
+                        }
+                    }
+                }
+            } catch (Exception e) {
+                plugin.getLogger().severe("Error importing for " + importer.importerId + ": " + e.getMessage());
+                Arrays.fill(stored, 0);
             }
+        }
 
-            // Calculate how many bottles we can make
-            int bottlesToMake = (int) (totalXp / 12.0f);
-            if (bottlesToMake == 0) {
-                return;
-            }
+        return new ImportTransfer(request, stored, bottleXp(importer, request.bottlesToMake()));
+    }
 
-            // Check if we have glass bottles in the network
-            ItemStack glassBottleTemplate = new ItemStack(Material.GLASS_BOTTLE, 1);
-            String glassBottleHash = plugin.getItemManager().generateItemHash(glassBottleTemplate);
+    /**
+     * Turn glass bottles from the network into experience bottles, runs on the transfer pool
+     *
+     * @return the experience bottles stored
+     */
+    private int bottleXp(ImporterData importer, int bottlesToMake) {
+        if (bottlesToMake <= 0) {
+            return 0;
+        }
 
+        try {
             // Try to retrieve glass bottles from network
-            ItemStack retrievedBottles;
-            try {
-                retrievedBottles = plugin.getStorageManager().retrieveItems(importer.networkId, glassBottleHash, bottlesToMake);
-            } catch (Exception e) {
-                plugin.debugLog("Error retrieving glass bottles: " + e.getMessage());
-                return; // Failed to retrieve
-            }
-
+            String glassBottleHash = plugin.getItemManager().generateItemHash(new ItemStack(Material.GLASS_BOTTLE, 1));
+            ItemStack retrievedBottles = plugin.getStorageManager().retrieveItems(importer.networkId, glassBottleHash, bottlesToMake);
             if (retrievedBottles == null || retrievedBottles.getAmount() == 0) {
-                return; // No glass bottles available
+                return 0; // No glass bottles available
             }
 
             int glassBottlesRetrieved = retrievedBottles.getAmount();
 
-            // Create experience bottles
+            // Create experience bottles and store them in the network
             int bottlesToCreate = Math.min(bottlesToMake, glassBottlesRetrieved);
-            ItemStack expBottles = new ItemStack(Material.EXPERIENCE_BOTTLE, bottlesToCreate);
-
-            // Store experience bottles in network
             List<ItemStack> expBottlesToStore = new ArrayList<>();
-            expBottlesToStore.add(expBottles);
+            expBottlesToStore.add(new ItemStack(Material.EXPERIENCE_BOTTLE, bottlesToCreate));
             List<ItemStack> leftoverExpBottles = plugin.getStorageManager().storeItems(importer.networkId, expBottlesToStore);
-
-            // Calculate how many were actually stored
             int expBottlesStored = bottlesToCreate - (leftoverExpBottles.isEmpty() ? 0 : leftoverExpBottles.getFirst().getAmount());
 
-            if (expBottlesStored > 0) {
-                // Successfully bottled XP!
-                // Calculate XP used (12 XP per bottle - more than max 11 XP drop to ensure cost)
-                float xpUsed = expBottlesStored * 12.0f;
-
-                // Reduce recipe counts proportionally
-                float xpRemaining = totalXp - xpUsed;
-                if (xpRemaining < 0.01f) {
-                    // Clear all recipe counts if we used all XP
-                    for (org.bukkit.inventory.CookingRecipe<?> recipe : recipesUsed.keySet()) {
-                        furnace.setRecipeUsedCount(recipe, 0);
-                    }
-                } else {
-                    // Proportionally reduce recipe counts
-                    float reductionRatio = xpRemaining / totalXp;
-                    for (Map.Entry<org.bukkit.inventory.CookingRecipe<?>, Integer> entry : recipesUsed.entrySet()) {
-                        int newCount = (int) Math.floor(entry.getValue() * reductionRatio);
-                        furnace.setRecipeUsedCount(entry.getKey(), newCount);
-                    }
-                }
-
-                // Save the furnace state changes
-                furnace.update();
-
-                // Return unused glass bottles if any
-                int unusedGlassBottles = glassBottlesRetrieved - expBottlesStored;
-                if (unusedGlassBottles > 0) {
-                    ItemStack unusedBottles = new ItemStack(Material.GLASS_BOTTLE, unusedGlassBottles);
-                    List<ItemStack> unusedList = new ArrayList<>();
-                    unusedList.add(unusedBottles);
-                    plugin.getStorageManager().storeItems(importer.networkId, unusedList);
-                }
-
-                // Refresh terminals
-                plugin.getGUIManager().refreshNetworkTerminals(importer.networkId);
-            } else {
-                // Failed to store exp bottles, return glass bottles
-                List<ItemStack> returnList = new ArrayList<>();
-                returnList.add(retrievedBottles);
-                plugin.getStorageManager().storeItems(importer.networkId, returnList);
+            // Return unused glass bottles if any
+            int unusedGlassBottles = glassBottlesRetrieved - expBottlesStored;
+            if (unusedGlassBottles > 0) {
+                List<ItemStack> unusedList = new ArrayList<>();
+                unusedList.add(new ItemStack(Material.GLASS_BOTTLE, unusedGlassBottles));
+                plugin.getStorageManager().storeItems(importer.networkId, unusedList);
             }
 
+            return expBottlesStored;
         } catch (Exception e) {
             plugin.getLogger().severe("Error bottling furnace XP: " + e.getMessage());
-            e.printStackTrace();
+            return 0;
         }
     }
 
-
     /**
-     * Import from brewing stand bottom potion slots (slots 0, 1, 2)
+     * Give back what the network didn't take, runs on the main thread
      */
-    private void importFromBrewingStand(ImporterData importer, Container brewingStandContainer) {
-        try {
-            Inventory brewingInventory = brewingStandContainer.getInventory();
-            int[] potionSlots = {0, 1, 2}; // Bottom potion slots
-
-            boolean anyImported = false;
-
-            for (int slot : potionSlots) {
-                ItemStack potionItem = brewingInventory.getItem(slot);
-                if (potionItem == null || potionItem.getType().isAir()) {
-                    continue; // No item in this slot
-                }
+    private void commitImport(ImportTransfer transfer) {
+        ImporterData importer = transfer.request().importer();
+        importsInFlight.remove(importer.importerId);
+
+        boolean anyImported = returnUnstored(transfer);
+        if (anyImported) {
+            importer.lastImport = System.currentTimeMillis();
+            plugin.getStorageManager().getTransfers().submit(() -> updateLastImport(importer.importerId));
+        }
 
-                // Check filter if enabled - special handling for brewing stands
-                if (!importer.filterItems.isEmpty()) {
-                    if (!isBrewingStandItemAllowed(importer.importerId, potionItem, slot)) {
-                        continue; // Item not in filter for this slot
-                    }
-                }
+        // Refresh any open terminals
+        if (anyImported || transfer.bottled() > 0) {
+            plugin.getGUIManager().refreshNetworkTerminals(importer.networkId);
+        }
+    }
 
-                // Try to store the item in the network
-                List<ItemStack> itemsToStore = new ArrayList<>();
-                itemsToStore.add(potionItem.clone());
+    /**
+     * Give back what the network didn't take when the import can't be committed anymore, runs on the main thread during shutdown
+     */
+    private void abortImport(ImportTransfer transfer) {
+        ImporterData importer = transfer.request().importer();
+        importsInFlight.remove(importer.importerId);
 
-                List<ItemStack> leftoverItems = plugin.getStorageManager().storeItems(importer.networkId, itemsToStore);
+        if (!plugin.getServer().isPrimaryThread()) {
+            plugin.getLogger().warning("Could not give back the unstored items of an unfinished import of " + importer.importerId);
+            return;
+        }
+        returnUnstored(transfer);
+    }
 
-                // Calculate what was actually imported
-                int originalAmount = potionItem.getAmount();
-                int leftoverAmount = leftoverItems.isEmpty() ? 0 : leftoverItems.getFirst().getAmount();
-                int importedAmount = originalAmount - leftoverAmount;
-
-                if (importedAmount > 0) {
-                    // Remove imported items from brewing stand
-                    if (leftoverAmount == 0) {
-                        brewingInventory.setItem(slot, null);
-                    } else {
-                        potionItem.setAmount(leftoverAmount);
-                        brewingInventory.setItem(slot, potionItem);
+    /**
+     * Put the items the network didn't take back in their slots, drop what no longer fits at the importer
+     * Furnace XP that wasn't bottled is released as experience orbs.
+     *
+     * @return true if anything was imported
+     */
+    private boolean returnUnstored(ImportTransfer transfer) {
+        ImportRequest request = transfer.request();
+        ImporterData importer = request.importer();
+
+        Container container = getTargetContainer(importer.location.getBlock());
+        Inventory inventory = container != null && container.getLocation().equals(request.containerLocation())
+                ? container.getInventory() : null;
+        boolean anyImported = false;
+
+        for (int i = 0; i < request.slots().size(); i++) {
+            ImportSlot slot = request.slots().get(i);
+            int unstored = slot.item().getAmount() - transfer.stored()[i];
+            if (transfer.stored()[i] > 0) {
+                anyImported = true;
+            }
+            if (unstored <= 0) continue;
+
+            if (inventory != null) {
+                ItemStack current = inventory.getItem(slot.slot());
+                if (current == null || current.getType().isAir()) {
+                    ItemStack returned = slot.item().clone();
+                    returned.setAmount(unstored);
+                    inventory.setItem(slot.slot(), returned);
+                    unstored = 0;
+                } else if (current.isSimilar(slot.item())) {
+                    int canAdd = Math.min(unstored, current.getMaxStackSize() - current.getAmount());
+                    if (canAdd > 0) {
+                        current.setAmount(current.getAmount() + canAdd);
+                        inventory.setItem(slot.slot(), current);
+                        unstored -= canAdd;
                     }
-
-                    anyImported = true;
                 }
             }
 
-            if (anyImported) {
-                importer.lastImport = System.currentTimeMillis();
-                updateLastImport(importer.importerId);
-
-                // Refresh any open terminals
-                plugin.getGUIManager().refreshNetworkTerminals(importer.networkId);
+            if (unstored > 0) {
+                ItemStack dropped = slot.item().clone();
+                dropped.setAmount(unstored);
+                importer.location.getWorld().dropItemNaturally(importer.location, dropped);
             }
+        }
 
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error importing from brewing stand: " + e.getMessage());
+        // Glass bottles ran out or the network filled up meanwhile, the XP taken for those bottles is released instead
+        int unbottled = request.bottlesToMake() - transfer.bottled();
+        if (unbottled > 0) {
+            int xp = Math.round(unbottled * XP_PER_BOTTLE);
+            request.containerLocation().getWorld().spawn(request.containerLocation().toCenterLocation(),
+                    org.bukkit.entity.ExperienceOrb.class, orb -> orb.setExperience(xp));
         }
+
+        return anyImported;
     }
 
     /**
-     * Import from any slot in generic containers (round-robin style)
+     * Get the XP stored in a furnace from the recipes it smelted
      */
-    private void importFromGenericContainer(ImporterData importer, Inventory targetInventory) {
-        try {
-            // Get current cycle index for round-robin
-            int currentIndex = importerCycleIndex.get(importer.importerId);
-            int inventorySize = targetInventory.getSize();
-            
-            // Try each slot once, starting from current index
-            for (int i = 0; i < inventorySize; i++) {
-                int checkIndex = (currentIndex + i) % inventorySize;
-                ItemStack slotItem = targetInventory.getItem(checkIndex);
-                
-                if (slotItem == null || slotItem.getType().isAir()) {
-                    continue; // No item in this slot
-                }
-
-                // Check filter if enabled (if no filters, import everything)
-                if (!importer.filterItems.isEmpty()) {
-                    String itemHash = plugin.getItemManager().generateItemHash(slotItem);
-                    if (!importer.filterItems.contains(itemHash)) {
-                        continue; // Item not in filter
-                    }
-                }
-
-                // Try to store the item in the network
-                List<ItemStack> itemsToStore = new ArrayList<>();
-                itemsToStore.add(slotItem.clone());
-
-                List<ItemStack> leftoverItems = plugin.getStorageManager().storeItems(importer.networkId, itemsToStore);
-
-                // Calculate what was actually imported
-                int originalAmount = slotItem.getAmount();
-                int leftoverAmount = leftoverItems.isEmpty() ? 0 : leftoverItems.getFirst().getAmount();
-                int importedAmount = originalAmount - leftoverAmount;
-
-                if (importedAmount > 0) {
-                    // Remove imported items from container
-                    if (leftoverAmount == 0) {
-                        targetInventory.setItem(checkIndex, null);
-                    } else {
-                        slotItem.setAmount(leftoverAmount);
-                        targetInventory.setItem(checkIndex, slotItem);
-                    }
-
-                    // Update cycle index for next time
-                    importerCycleIndex.put(importer.importerId, (checkIndex + 1) % inventorySize);
-
-                    importer.lastImport = System.currentTimeMillis();
-                    updateLastImport(importer.importerId);
+    private static float getStoredXp(org.bukkit.block.Furnace furnace) {
+        float totalXp = 0.0f;
+        for (Map.Entry<org.bukkit.inventory.CookingRecipe<?>, Integer> entry : furnace.getRecipesUsed().entrySet()) {
+            totalXp += entry.getKey().getExperience() * entry.getValue();
+        }
+        return totalXp;
+    }
 
-                    // Refresh any open terminals
-                    plugin.getGUIManager().refreshNetworkTerminals(importer.networkId);
-                    return; // Import one item per cycle
-                }
+    /**
+     * Take bottled XP from a furnace by reducing its recipe counts
+     */
+    private void consumeXp(org.bukkit.block.Furnace furnace, float xpUsed) {
+        Map<org.bukkit.inventory.CookingRecipe<?>, Integer> recipesUsed = furnace.getRecipesUsed();
+        float totalXp = getStoredXp(furnace);
+
+        // Reduce recipe counts proportionally
+        float xpRemaining = totalXp - xpUsed;
+        if (xpRemaining < 0.01f) {
+            // Clear all recipe counts if we used all XP
+            for (org.bukkit.inventory.CookingRecipe<?> recipe : recipesUsed.keySet()) {
+                furnace.setRecipeUsedCount(recipe, 0);
+            }
+        } else {
+            float reductionRatio = xpRemaining / totalXp;
+            for (Map.Entry<org.bukkit.inventory.CookingRecipe<?>, Integer> entry : recipesUsed.entrySet()) {
+                int newCount = (int) Math.floor(entry.getValue() * reductionRatio);
+                furnace.setRecipeUsedCount(entry.getKey(), newCount);
             }
-
-            // Update cycle index even if nothing was imported
-            importerCycleIndex.put(importer.importerId, (currentIndex + 1) % inventorySize);
-
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error importing from generic container: " + e.getMessage());
         }
+
+        // Save the furnace state changes
+        furnace.update();
     }
 
     /**
@@ -659,6 +691,7 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
 
         activeImporters.remove(importerId);
         importerCycleIndex.remove(importerId);
+        brewingSlotFilters.remove(importerId);
     }
 
     /**
@@ -719,7 +752,7 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
             // Add new filters with both hashes and item data
             if (!filterItems.isEmpty()) {
                 try (PreparedStatement stmt = conn.prepareStatement(
-                        "INSERT INTO importer_filters (importer_id, item_hash, item_data, filter_type) VALUES (?, ?, ?, 'whitelist')")) {
+                        "INSERT INTO importer_filters (importer_id, item_hash, item_bytes, filter_type) VALUES (?, ?, ?, 'whitelist')")) {
 
                     for (ItemStack item : filterItems) {
                         // Ensure we store single-item templates
@@ -727,11 +760,11 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
                         template.setAmount(1);
 
                         String itemHash = plugin.getItemManager().generateItemHash(template);
-                        String itemData = plugin.getStorageManager().serializeItemStack(template);
+                        byte[] itemData = plugin.getStorageManager().serializeItemStack(template);
 
                         stmt.setString(1, importerId);
                         stmt.setString(2, itemHash);
-                        stmt.setString(3, itemData);
+                        stmt.setBytes(3, itemData);
                         stmt.addBatch();
                     }
                     stmt.executeBatch();
@@ -740,6 +773,7 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
         });
 
         // Update in-memory data with hashes from single-item templates
+        brewingSlotFilters.remove(importerId);
         data.filterItems.clear();
         for (ItemStack item : filterItems) {
             ItemStack template = item.clone();
@@ -758,12 +792,12 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
 
         try (Connection conn = plugin.getDatabaseManager().getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT item_data FROM importer_filters WHERE importer_id = ? AND item_data IS NOT NULL")) {
+                     "SELECT item_data, item_bytes FROM importer_filters WHERE importer_id = ?")) {
 
             stmt.setString(1, importerId);
             try (ResultSet rs = stmt.executeQuery()) {
                 while (rs.next()) {
-                    String itemData = rs.getString("item_data");
+                    byte[] itemData = StorageManager.readItemBytes(rs);
                     ItemStack item = plugin.getStorageManager().deserializeItemStack(itemData);
                     if (item != null) {
                         // Ensure it's a single-item template
@@ -820,13 +854,17 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
         ImporterData importerData = new ImporterData(importerId, finalNetworkId, location, false, false);
         activeImporters.put(importerId, importerData);
         importerCycleIndex.put(importerId, 0); // Initialize cycle index
+        importScheduler.add(importerId);
 
         return importerId;
     }
 
     public void updateImporterNetworkAssignments() {
+        updateImporterNetworkAssignments(activeImporters.values());
+    }
 
-        for (ImporterData importer : activeImporters.values()) {
+    private void updateImporterNetworkAssignments(Collection<ImporterData> importers) {
+        for (ImporterData importer : importers) {
             // Check if current network is valid
             boolean currentNetworkValid = importer.networkId != null &&
                     !"UNCONNECTED".equals(importer.networkId) &&
@@ -930,14 +968,12 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
      */
     private boolean isBrewingStandItemAllowed(String importerId, ItemStack item, int slot) {
         try {
-            // Parse brewing stand filters
-            BrewingStandFilters filters = parseBrewingStandFilters(importerId);
-            
+            // Parsed once per filter change, imports are planned on the main thread
+            String[] filterHashes = brewingSlotFilters.computeIfAbsent(importerId, this::loadBrewingSlotFilters);
+
             // Check if there's a filter for this specific bottle slot
-            if (slot >= 0 && slot < 3 && filters.bottleFilters[slot] != null) {
-                String itemHash = plugin.getItemManager().generateItemHash(item);
-                String filterHash = plugin.getItemManager().generateItemHash(filters.bottleFilters[slot]);
-                return itemHash.equals(filterHash);
+            if (slot >= 0 && slot < 3 && filterHashes[slot] != null) {
+                return filterHashes[slot].equals(plugin.getItemManager().generateItemHash(item));
             }
             
             // If no specific filter for this slot, don't import
@@ -949,6 +985,20 @@ public class ImporterManager implements org.jamesphbennett.modularstoragesystem.
         }
     }
 
+    /**
+     * Hash the brewing stand bottle slot filters of an importer
+     */
+    private String[] loadBrewingSlotFilters(String importerId) {
+        BrewingStandFilters filters = parseBrewingStandFilters(importerId);
+        String[] filterHashes = new String[3];
+        for (int slot = 0; slot < 3; slot++) {
+            if (filters.bottleFilters[slot] != null) {
+                filterHashes[slot] = plugin.getItemManager().generateItemHash(filters.bottleFilters[slot]);
+            }
+        }
+        return filterHashes;
+    }
+
     /**
      * Parse brewing stand specific filters from the importer's filter items
      */
@@ -2,24 +2,26 @@ package org.jamesphbennett.modularstoragesystem.managers;
 
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.minimessage.MiniMessage;
-import net.kyori.adventure.text.serializer.legacy.LegacyComponentSerializer;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.NamespacedKey;
+import org.bukkit.enchantments.Enchantment;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
 import org.bukkit.inventory.meta.SkullMeta;
 import org.bukkit.persistence.PersistentDataContainer;
 import org.bukkit.persistence.PersistentDataType;
+import org.bukkit.potion.PotionEffect;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.utils.DiskMetadataCache;
+import org.jamesphbennett.modularstoragesystem.utils.ItemHasher;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 
@@ -27,7 +29,22 @@ public class ItemManager {
 
     private final ModularStorageSystem plugin;
     private final MiniMessage miniMessage;
-    private final LegacyComponentSerializer legacySerializer;
+    private final String pluginNamespace;
+
+    // Item hash fields, each written before its value so absent fields can't be confused
+    private static final int HASH_DISPLAY_NAME = 1;
+    private static final int HASH_LORE = 2;
+    private static final int HASH_ITEM_MODEL = 3;
+    private static final int HASH_ENCHANTS = 4;
+    private static final int HASH_STORED_ENCHANTS = 5;
+    private static final int HASH_POTION_TYPE = 6;
+    private static final int HASH_POTION_EFFECTS = 7;
+    private static final int HASH_POTION_COLOR = 8;
+    private static final int HASH_PDC = 9;
+    private static final int HASH_DAMAGE = 10;
+
+    // Hashes of plain items by material ordinal, filled lazily
+    private final String[] materialHashes = new String[Material.values().length];
 
     // Namespace keys for identifying custom items
     private final NamespacedKey STORAGE_SERVER_KEY;
@@ -53,7 +70,7 @@ public class ItemManager {
     public ItemManager(ModularStorageSystem plugin) {
         this.plugin = plugin;
         this.miniMessage = MiniMessage.miniMessage();
-        this.legacySerializer = LegacyComponentSerializer.legacySection();
+        this.pluginNamespace = plugin.getName().toLowerCase(Locale.ROOT);
 
         STORAGE_SERVER_KEY = new NamespacedKey(plugin, "storage_server");
         DRIVE_BAY_KEY = new NamespacedKey(plugin, "drive_bay");
@@ -568,18 +585,8 @@ public class ItemManager {
      * Get tier from database
      */
     private String getTierFromDatabase(String diskId) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement("SELECT tier FROM storage_disks WHERE disk_id = ?")) {
-            stmt.setString(1, diskId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getString("tier");
-                }
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error getting tier from database for disk " + diskId + ": " + e.getMessage());
-        }
-        return null;
+        DiskMetadataCache.DiskMetadata metadata = plugin.getDiskMetadataCache().get(diskId);
+        return metadata != null ? metadata.tier() : null;
     }
 
 
@@ -674,112 +681,123 @@ public class ItemManager {
      * Generate a unique hash for an ItemStack including all metadata
      */
     public String generateItemHash(ItemStack item) {
-        try {
-            StringBuilder builder = new StringBuilder();
-
+        Material type = item.getType();
+
+        // Fast path: items without meta are identified by their material alone
+        if (!item.hasItemMeta()) {
+            String cached = materialHashes[type.ordinal()];
+            if (cached == null) {
+                cached = new ItemHasher().putString(type.name()).finish();
+                materialHashes[type.ordinal()] = cached;
+            }
+            return cached;
+        }
 
-            // Material type
-            builder.append(item.getType().name());
+        ItemHasher hasher = new ItemHasher().putString(type.name());
+        ItemHasher entryHasher = new ItemHasher();
+        ItemMeta meta = item.getItemMeta();
 
-            if (item.hasItemMeta()) {
-                ItemMeta meta = item.getItemMeta();
+        // Display name
+        if (meta.hasDisplayName()) {
+            hasher.putInt(HASH_DISPLAY_NAME).putComponent(meta.displayName());
+        }
 
-                // Display name
-                if (meta.hasDisplayName()) {
-                    Component displayName = meta.displayName();
-                    if (displayName != null) {
-                        builder.append("|displayName:").append(legacySerializer.serialize(displayName));
-                    }
-                }
-
-                // Lore
-                if (meta.hasLore() && meta.lore() != null) {
-                    // Convert Adventure components back to legacy for hashing consistency
-                    List<String> legacyLore = new ArrayList<>();
-                    for (Component loreComponent : Objects.requireNonNull(meta.lore())) {
-                        if (loreComponent != null) {
-                            legacyLore.add(legacySerializer.serialize(loreComponent));
-                        }
-                    }
-                    builder.append("|lore:").append(legacyLore);
+        // Lore
+        if (meta.hasLore()) {
+            List<Component> lore = meta.lore();
+            if (lore != null) {
+                hasher.putInt(HASH_LORE).putInt(lore.size());
+                for (Component line : lore) {
+                    hasher.putComponent(line);
                 }
+            }
+        }
 
-                // Custom model data
-                if (meta.hasItemModel()) {
-                    builder.append("|customModelData:").append(Objects.requireNonNull(meta.getItemModel()));
-                }
+        // Item model
+        if (meta.hasItemModel()) {
+            NamespacedKey model = Objects.requireNonNull(meta.getItemModel());
+            hasher.putInt(HASH_ITEM_MODEL).putString(model.getNamespace()).putString(model.getKey());
+        }
 
-                // Enchantments (for regular enchanted items)
-                if (meta.hasEnchants()) {
-                    builder.append("|enchants:").append(meta.getEnchants());
-                }
+        // Enchantments (for regular enchanted items)
+        if (meta.hasEnchants()) {
+            hasher.putInt(HASH_ENCHANTS).putLong(hashEnchantments(meta.getEnchants(), entryHasher));
+        }
 
-                // Enchanted book-specific metadata (stored enchantments)
-                if (meta instanceof org.bukkit.inventory.meta.EnchantmentStorageMeta enchantMeta) {
-                    if (enchantMeta.hasStoredEnchants()) {
-                        builder.append("|storedEnchants:").append(enchantMeta.getStoredEnchants());
-                    }
-                }
+        // Enchanted book-specific metadata (stored enchantments)
+        if (meta instanceof org.bukkit.inventory.meta.EnchantmentStorageMeta enchantMeta && enchantMeta.hasStoredEnchants()) {
+            hasher.putInt(HASH_STORED_ENCHANTS).putLong(hashEnchantments(enchantMeta.getStoredEnchants(), entryHasher));
+        }
 
-                // Potion-specific metadata
-                if (meta instanceof org.bukkit.inventory.meta.PotionMeta potionMeta) {
-                    // Base potion type
-                    if (potionMeta.getBasePotionType() != null) {
-                        builder.append("|basePotionType:").append(potionMeta.getBasePotionType());
-                    }
-                    
-                    // Custom effects
-                    if (potionMeta.hasCustomEffects()) {
-                        builder.append("|customEffects:").append(potionMeta.getCustomEffects());
-                    }
-                    
-                    // Color (for custom potions)
-                    if (potionMeta.hasColor()) {
-                        builder.append("|potionColor:").append(potionMeta.getColor());
-                    }
-                }
+        // Potion-specific metadata
+        if (meta instanceof org.bukkit.inventory.meta.PotionMeta potionMeta) {
+            // Base potion type
+            if (potionMeta.getBasePotionType() != null) {
+                hasher.putInt(HASH_POTION_TYPE).putString(potionMeta.getBasePotionType().name());
+            }
 
-                // Persistent data (excluding our own MSS keys to prevent issues)
-                PersistentDataContainer pdc = meta.getPersistentDataContainer();
-                for (NamespacedKey key : pdc.getKeys()) {
-                    if (!key.getNamespace().equals(plugin.getName().toLowerCase())) {
-                        builder.append("|pdc:").append(key).append("=");
-                        // Try different data types
-                        if (pdc.has(key, PersistentDataType.STRING)) {
-                            builder.append(pdc.get(key, PersistentDataType.STRING));
-                        } else if (pdc.has(key, PersistentDataType.INTEGER)) {
-                            builder.append(pdc.get(key, PersistentDataType.INTEGER));
-                        } else if (pdc.has(key, PersistentDataType.BOOLEAN)) {
-                            builder.append(pdc.get(key, PersistentDataType.BOOLEAN));
-                        }
-                    }
+            // Custom effects, in order
+            if (potionMeta.hasCustomEffects()) {
+                List<PotionEffect> effects = potionMeta.getCustomEffects();
+                hasher.putInt(HASH_POTION_EFFECTS).putInt(effects.size());
+                for (PotionEffect effect : effects) {
+                    NamespacedKey effectKey = effect.getType().getKey();
+                    hasher.putString(effectKey.getNamespace()).putString(effectKey.getKey())
+                            .putInt(effect.getAmplifier()).putInt(effect.getDuration())
+                            .putBoolean(effect.isAmbient()).putBoolean(effect.hasParticles()).putBoolean(effect.hasIcon());
                 }
             }
 
-            // Durability/damage
-            if (item.getType().getMaxDurability() > 0) {
-                if (item.hasItemMeta() && item.getItemMeta() instanceof org.bukkit.inventory.meta.Damageable damageable) {
-                    builder.append("|damage:").append(damageable.getDamage());
-                }
+            // Color (for custom potions)
+            if (potionMeta.hasColor()) {
+                hasher.putInt(HASH_POTION_COLOR).putInt(Objects.requireNonNull(potionMeta.getColor()).asRGB());
             }
+        }
 
-            // Generate SHA-256 hash
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest(builder.toString().getBytes());
+        // Persistent data (excluding our own MSS keys to prevent issues), combined independent of key order
+        PersistentDataContainer pdc = meta.getPersistentDataContainer();
+        if (!pdc.isEmpty()) {
+            long pdcHash = 0;
+            for (NamespacedKey key : pdc.getKeys()) {
+                if (key.getNamespace().equals(pluginNamespace)) {
+                    continue;
+                }
 
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) hexString.append('0');
-                hexString.append(hex);
+                entryHasher.reset().putString(key.getNamespace()).putString(key.getKey());
+                // Try different data types
+                if (pdc.has(key, PersistentDataType.STRING)) {
+                    entryHasher.putInt(1).putString(pdc.get(key, PersistentDataType.STRING));
+                } else if (pdc.has(key, PersistentDataType.INTEGER)) {
+                    entryHasher.putInt(2).putInt(Objects.requireNonNull(pdc.get(key, PersistentDataType.INTEGER)));
+                } else if (pdc.has(key, PersistentDataType.BOOLEAN)) {
+                    entryHasher.putInt(3).putBoolean(Boolean.TRUE.equals(pdc.get(key, PersistentDataType.BOOLEAN)));
+                }
+                pdcHash += entryHasher.finishLong();
+            }
+            if (pdcHash != 0) {
+                hasher.putInt(HASH_PDC).putLong(pdcHash);
             }
+        }
 
-            return hexString.toString();
+        // Durability/damage
+        if (type.getMaxDurability() > 0 && meta instanceof org.bukkit.inventory.meta.Damageable damageable) {
+            hasher.putInt(HASH_DAMAGE).putInt(damageable.getDamage());
+        }
 
-        } catch (NoSuchAlgorithmException e) {
-            // Fallback to simple string hash
-            return String.valueOf(item.toString().hashCode());
+        return hasher.finish();
+    }
+
+    /**
+     * Combine enchantments independent of their map order
+     */
+    private long hashEnchantments(Map<Enchantment, Integer> enchantments, ItemHasher entryHasher) {
+        long combined = 0;
+        for (Map.Entry<Enchantment, Integer> entry : enchantments.entrySet()) {
+            NamespacedKey key = entry.getKey().getKey();
+            combined += entryHasher.reset().putString(key.getNamespace()).putString(key.getKey())
+                    .putInt(entry.getValue()).finishLong();
         }
+        return combined;
     }
 
     /**
@@ -1,9 +1,14 @@
 package org.jamesphbennett.modularstoragesystem.managers;
 
 import org.bukkit.Location;
-import org.bukkit.block.Block;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.network.NetworkChange;
+import org.jamesphbennett.modularstoragesystem.network.NetworkConnectivityManager;
+import org.jamesphbennett.modularstoragesystem.utils.BlockPos;
+import org.jamesphbennett.modularstoragesystem.utils.LongArrayQueue;
+import org.jamesphbennett.modularstoragesystem.utils.LongHashSet;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -41,6 +46,19 @@ public class NetworkSecurityManager implements org.jamesphbennett.modularstorage
         updateSecurityTerminalNetworkAssignments();
     }
 
+    /**
+     * The assignment scan covers every terminal, so it runs once per batch however many networks were removed
+     */
+    @Override
+    public void onNetworkChanges(List<NetworkChange> changes) {
+        for (NetworkChange change : changes) {
+            if (change.isRemoved()) {
+                updateSecurityTerminalNetworkAssignments();
+                return;
+            }
+        }
+    }
+
     /**
      * Create a new security terminal at the specified location
      */
@@ -65,6 +83,7 @@ public class NetworkSecurityManager implements org.jamesphbennett.modularstorage
             }
         });
 
+        plugin.getNetworkManager().getLocationIndex().invalidate(location);
     }
 
     /**
@@ -83,7 +102,8 @@ public class NetworkSecurityManager implements org.jamesphbennett.modularstorage
                 stmt.executeUpdate();
             }
         });
-        
+
+        plugin.getNetworkManager().getLocationIndex().invalidate(location);
     }
 
     /**
@@ -276,58 +296,44 @@ public class NetworkSecurityManager implements org.jamesphbennett.modularstorage
      * Check if two locations are connected via network blocks/cables
      */
     private boolean isConnectedViaNetwork(Location from, Location to) {
-        // Use BFS to check connectivity
-        Set<Location> visited = new HashSet<>();
-        Queue<Location> queue = new LinkedList<>();
-        queue.add(from);
-        visited.add(from);
-        
+        World world = from.getWorld();
+        if (world == null || !world.equals(to.getWorld())) {
+            return false;
+        }
+
+        // Use BFS over packed block positions to check connectivity
+        long target = BlockPos.pack(to);
+        long start = BlockPos.pack(from);
+        LongHashSet visited = new LongHashSet();
+        LongArrayQueue queue = new LongArrayQueue();
+        queue.add(start);
+        visited.add(start);
+
         while (!queue.isEmpty()) {
-            Location current = queue.poll();
-            
+            long current = queue.poll();
+
             // If we reached the target location, they're connected
-            if (current.equals(to)) {
+            if (current == target) {
                 return true;
             }
-            
+
             // Check all adjacent blocks
-            for (Location adjacent : getAdjacentLocations(current)) {
+            for (int face = 0; face < 6; face++) {
+                long adjacent = BlockPos.offset(current, face);
                 if (visited.contains(adjacent)) continue;
-                
-                Block block = adjacent.getBlock();
+
                 // If it's a network block or cable, continue searching
-                if (isNetworkBlock(block) || plugin.getCableManager().isCustomNetworkCable(block)) {
+                if (plugin.getCableManager().getBlockType(world, BlockPos.getX(adjacent), BlockPos.getY(adjacent),
+                        BlockPos.getZ(adjacent)) != NetworkConnectivityManager.BlockType.UNKNOWN) {
                     visited.add(adjacent);
                     queue.add(adjacent);
                 }
             }
         }
-        
-        return false;
-    }
-
-    /**
-     * Get adjacent locations (6 directions)
-     */
-    private List<Location> getAdjacentLocations(Location center) {
-        List<Location> adjacent = new ArrayList<>();
-        adjacent.add(center.clone().add(1, 0, 0));
-        adjacent.add(center.clone().add(-1, 0, 0));
-        adjacent.add(center.clone().add(0, 1, 0));
-        adjacent.add(center.clone().add(0, -1, 0));
-        adjacent.add(center.clone().add(0, 0, 1));
-        adjacent.add(center.clone().add(0, 0, -1));
-        return adjacent;
-    }
 
-    /**
-     * Check if a block is a network block or cable
-     */
-    private boolean isNetworkBlock(Block block) {
-        return plugin.getCableManager().isCustomNetworkBlockOrCable(block);
+        return false;
     }
 
-
     /**
      * Check if a player is the owner of a security terminal at a location
      */
@@ -362,6 +368,8 @@ public class NetworkSecurityManager implements org.jamesphbennett.modularstorage
                 stmt.executeUpdate();
             }
         });
+
+        plugin.getNetworkManager().getLocationIndex().invalidate(location);
     }
 
     /**
@@ -431,23 +439,15 @@ public class NetworkSecurityManager implements org.jamesphbennett.modularstorage
      */
     private String findAdjacentNetwork(Location location) {
         // Check adjacent locations for network blocks or cables (6 face-adjacent blocks)
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                for (int dz = -1; dz <= 1; dz++) {
-                    if (dx == 0 && dy == 0 && dz == 0) continue;
-
-                    // Only check face-adjacent blocks (not diagonal)
-                    int nonZero = (dx != 0 ? 1 : 0) + (dy != 0 ? 1 : 0) + (dz != 0 ? 1 : 0);
-                    if (nonZero == 1) {
-                        Location adjacent = location.clone().add(dx, dy, dz);
-                        String networkId = plugin.getNetworkManager().getNetworkId(adjacent);
-
-                        if (networkId != null && !networkId.startsWith("UNCONNECTED") &&
-                                plugin.getNetworkManager().isNetworkValid(networkId)) {
-                            return networkId;
-                        }
-                    }
-                }
+        for (int face = 0; face < 6; face++) {
+            String networkId = plugin.getNetworkManager().getNetworkId(location.getWorld(),
+                    location.getBlockX() + BlockPos.FACE_X[face],
+                    location.getBlockY() + BlockPos.FACE_Y[face],
+                    location.getBlockZ() + BlockPos.FACE_Z[face]);
+
+            if (networkId != null && !networkId.startsWith("UNCONNECTED") &&
+                    plugin.getNetworkManager().isNetworkValid(networkId)) {
+                return networkId;
             }
         }
         return null;
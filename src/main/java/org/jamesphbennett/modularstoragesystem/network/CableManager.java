@@ -5,15 +5,12 @@ import net.kyori.adventure.text.format.NamedTextColor;
 import net.kyori.adventure.text.minimessage.MiniMessage;
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.entity.Player;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.*;
 
 public class CableManager {
 
@@ -68,33 +65,12 @@ public class CableManager {
      */
     public String checkNetworkLinkingConflict(Location location) {
         try {
-            Set<String> adjacentNetworks = new HashSet<>();
-            List<Location> adjacentLocations = getAdjacentLocations(location);
-
-            for (Location adjacent : adjacentLocations) {
-                Block adjacentBlock = adjacent.getBlock();
-
-                // Check if adjacent block is a custom MSS block (including cables)
-                if (isCustomNetworkBlockOrCable(adjacentBlock)) {
-                    String networkId = getNetworkIdForLocation(adjacent);
-
-                    // Only consider valid, established networks for conflict checking
-                    // BUT also allow connecting to standalone network blocks (special case)
-                    if (networkId != null && !networkId.startsWith("standalone_") &&
-                            !networkId.startsWith("orphaned_") && isValidNetwork(networkId)) {
-                        adjacentNetworks.add(networkId);
-                    } else if (networkId != null && networkId.startsWith("standalone_") && 
-                               isCustomNetworkBlock(adjacentBlock)) {
-                        // Allow connecting to standalone network blocks (single blocks without full networks)
-                        // This enables cables to connect to individual security terminals, storage servers, etc.
-                        adjacentNetworks.add(networkId);
-                    }
-                }
-            }
+            // Every adjacent component holding a storage server is an established network that would be joined
+            int adjacentNetworks = plugin.getNetworkComponents().getAdjacentComponents(location).serverComponents();
 
             // If more than one established network would be connected, prevent placement
-            if (adjacentNetworks.size() > 1) {
-                return "Cannot connect different established networks! Found " + adjacentNetworks.size() + " networks.";
+            if (adjacentNetworks > 1) {
+                return "Cannot connect different established networks! Found " + adjacentNetworks + " networks.";
             }
 
             return null; // No conflict
@@ -110,17 +86,11 @@ public class CableManager {
      */
     private boolean checkCableLimit(Location location, Player player) {
         try {
-            NetworkConnectivityManager.NetworkConnectivity connectivity = connectivityManager.analyzeLocation(location);
-            
-            // Find the target network this cable would connect to
-            String targetNetworkId = null;
-            for (String networkId : connectivity.getConnectedNetworkIds()) {
-                targetNetworkId = networkId;
-                break; // Take the first network found
-            }
+            // All adjacent components are merged by this cable, so their cables add up
+            NetworkComponents.AdjacentComponents adjacent = plugin.getNetworkComponents().getAdjacentComponents(location);
 
-            if (targetNetworkId != null) {
-                int currentCableCount = getCableCountForNetwork(targetNetworkId);
+            if (adjacent.components() > 0) {
+                int currentCableCount = adjacent.cables();
                 int maxCables = plugin.getConfigManager().getMaxNetworkCables();
 
                 if (currentCableCount >= maxCables) {
@@ -130,7 +100,7 @@ public class CableManager {
                     return false;
                 }
 
-                plugin.debugLog("Cable placement: Network " + targetNetworkId + " will have " + (currentCableCount + 1) + "/" + maxCables + " cables");
+                plugin.debugLog("Cable placement: Network will have " + (currentCableCount + 1) + "/" + maxCables + " cables");
             }
 
             return true;
@@ -141,21 +111,6 @@ public class CableManager {
         }
     }
 
-    /**
-     * Get cable count for a specific network
-     */
-    private int getCableCountForNetwork(String networkId) throws SQLException {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM network_blocks WHERE network_id = ? AND block_type = 'NETWORK_CABLE'")) {
-
-            stmt.setString(1, networkId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() ? rs.getInt(1) : 0;
-            }
-        }
-    }
-
     /**
      * Check if a block is a custom network cable (strict validation)
      */
@@ -171,6 +126,13 @@ public class CableManager {
         return connectivityManager.getBlockType(block) != NetworkConnectivityManager.BlockType.UNKNOWN;
     }
 
+    /**
+     * Get the MSS block type at a block position (delegates to connectivity manager)
+     */
+    public NetworkConnectivityManager.BlockType getBlockType(World world, int x, int y, int z) {
+        return connectivityManager.getBlockType(world, x, y, z);
+    }
+
     /**
      * Check if a location is marked as a custom cable in the database
      */
@@ -182,20 +144,9 @@ public class CableManager {
      * Mark a location as containing a custom cable
      */
     private void markLocationAsCustomCable(Location location) throws SQLException {
-        plugin.getDatabaseManager().executeTransaction(conn -> {
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "INSERT OR REPLACE INTO custom_block_markers (world_name, x, y, z, block_type) VALUES (?, ?, ?, ?, ?)")) {
-                stmt.setString(1, location.getWorld().getName());
-                stmt.setInt(2, location.getBlockX());
-                stmt.setInt(3, location.getBlockY());
-                stmt.setInt(4, location.getBlockZ());
-                stmt.setString(5, "NETWORK_CABLE");
-                stmt.executeUpdate();
-            }
-        });
+        plugin.getBlockMarkerCache().markCustomBlock(location, "NETWORK_CABLE");
     }
 
-
     /**
      * Check for storage server conflicts AND general MSS block connection conflicts using unified connectivity manager
      */
@@ -238,83 +189,10 @@ public class CableManager {
 
 
     /**
-     * Get adjacent locations (face-adjacent only)
-     */
-    private List<Location> getAdjacentLocations(Location center) {
-        List<Location> adjacent = new ArrayList<>();
-        int[] offsets = {-1, 0, 1};
-
-        for (int dx : offsets) {
-            for (int dy : offsets) {
-                for (int dz : offsets) {
-                    if (dx == 0 && dy == 0 && dz == 0) continue;
-
-                    // Only check face-adjacent blocks (not diagonal)
-                    int nonZero = (dx != 0 ? 1 : 0) + (dy != 0 ? 1 : 0) + (dz != 0 ? 1 : 0);
-                    if (nonZero == 1) {
-                        adjacent.add(center.clone().add(dx, dy, dz));
-                    }
-                }
-            }
-        }
-
-        return adjacent;
-    }
-
-    /**
-     * Get network ID for a location
-     */
-    private String getNetworkIdForLocation(Location location) {
-        try {
-            return plugin.getNetworkManager().getNetworkId(location);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error getting network ID for location: " + e.getMessage());
-            return null;
-        }
-    }
-
-    /**
-     * Check if a network is valid and established
-     */
-    private boolean isValidNetwork(String networkId) {
-        try {
-            return plugin.getNetworkManager().isNetworkValid(networkId);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error checking network validity: " + e.getMessage());
-            return false;
-        }
-    }
-
-    /**
-     * Check if a block is a custom network block (not cable)
-     */
-    private boolean isCustomNetworkBlock(Block block) {
-        NetworkConnectivityManager.BlockType blockType = connectivityManager.getBlockType(block);
-        return blockType != NetworkConnectivityManager.BlockType.NETWORK_CABLE && 
-               blockType != NetworkConnectivityManager.BlockType.UNKNOWN;
-    }
-
-    /**
-     * Check if a location is marked as a custom block in the database
+     * Check if a location is marked as a custom cable
      */
     private boolean isMarkedAsCustomBlock(Location location) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ? AND block_type = ?")) {
-
-            stmt.setString(1, location.getWorld().getName());
-            stmt.setInt(2, location.getBlockX());
-            stmt.setInt(3, location.getBlockY());
-            stmt.setInt(4, location.getBlockZ());
-            stmt.setString(5, "NETWORK_CABLE");
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error checking custom block marker: " + e.getMessage());
-            return false;
-        }
+        return plugin.getBlockMarkerCache().isMarkedAsCustomBlock(location, "NETWORK_CABLE");
     }
 
     /**
@@ -44,6 +44,10 @@ public class DisksManager {
 
             // Drop each disk and remove from database
             for (String diskId : diskIds) {
+                // Take the disk out of the network first, then persist its stored items so the dropped disk reflects its real contents
+                plugin.getDriveBayDiskCache().removeDisk(diskId);
+                plugin.getStorageManager().releaseDisk(diskId);
+
                 // Get disk info for recreation
                 try (PreparedStatement diskStmt = conn.prepareStatement(
                         "SELECT crafter_uuid, crafter_name, used_cells, max_cells FROM storage_disks WHERE disk_id = ?")) {
@@ -77,6 +81,7 @@ public class DisksManager {
                     deleteStmt.setString(5, diskId);
                     deleteStmt.executeUpdate();
                 }
+                plugin.getDiskMetadataCache().invalidate(diskId);
             }
 
             // Refresh all terminals in the network after drive bay destruction
@@ -115,6 +120,10 @@ public class DisksManager {
 
             // Drop each disk and remove from database
             for (String diskId : diskIds) {
+                // Take the disk out of the network first, then persist its stored items so the dropped disk reflects its real contents
+                plugin.getDriveBayDiskCache().removeDisk(diskId);
+                plugin.getStorageManager().releaseDisk(diskId);
+
                 // Get disk info for recreation
                 try (PreparedStatement diskStmt = conn.prepareStatement(
                         "SELECT crafter_uuid, crafter_name, used_cells, max_cells FROM storage_disks WHERE disk_id = ?")) {
@@ -148,6 +157,7 @@ public class DisksManager {
                     deleteStmt.setString(5, diskId);
                     deleteStmt.executeUpdate();
                 }
+                plugin.getDiskMetadataCache().invalidate(diskId);
             }
 
         } catch (Exception e) {
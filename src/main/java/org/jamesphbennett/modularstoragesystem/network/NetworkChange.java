@@ -0,0 +1,104 @@
+package org.jamesphbennett.modularstoragesystem.network;
+
+import org.bukkit.Location;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Everything that happened to one network within an event bus window
+ * Events for the same network are folded into a single change, a block added and removed again cancels out
+ */
+public class NetworkChange {
+
+    private final String networkId;
+    private final Set<Location> addedBlocks = new HashSet<>();
+    private final Set<Location> removedBlocks = new HashSet<>();
+    private final Set<String> mergedNetworks = new HashSet<>();
+    private boolean split;
+    private boolean disksChanged;
+    private boolean removed;
+
+    NetworkChange(String networkId) {
+        this.networkId = networkId;
+    }
+
+    public String getNetworkId() {
+        return networkId;
+    }
+
+    /**
+     * Blocks that joined the network
+     */
+    public Set<Location> getAddedBlocks() {
+        return Collections.unmodifiableSet(addedBlocks);
+    }
+
+    /**
+     * Blocks that left the network, broken or split off
+     */
+    public Set<Location> getRemovedBlocks() {
+        return Collections.unmodifiableSet(removedBlocks);
+    }
+
+    /**
+     * Networks that were absorbed into this one
+     */
+    public Set<String> getMergedNetworks() {
+        return Collections.unmodifiableSet(mergedNetworks);
+    }
+
+    /**
+     * Check if blocks that are still in place were cut off from the network
+     */
+    public boolean isSplit() {
+        return split;
+    }
+
+    /**
+     * Check if disks were inserted into or taken out of the network's drive bays
+     */
+    public boolean isDisksChanged() {
+        return disksChanged;
+    }
+
+    /**
+     * Check if the network no longer exists at the end of the window
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    void updated(Collection<Location> added, Collection<Location> removed, Collection<String> merged, boolean split) {
+        for (Location location : added) {
+            if (!removedBlocks.remove(location)) {
+                addedBlocks.add(location);
+            }
+        }
+        for (Location location : removed) {
+            if (!addedBlocks.remove(location)) {
+                removedBlocks.add(location);
+            }
+        }
+        mergedNetworks.addAll(merged);
+        this.split |= split;
+        this.removed = false;
+    }
+
+    void disksChanged() {
+        disksChanged = true;
+    }
+
+    void removed() {
+        removed = true;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkChange{" + networkId + ", +" + addedBlocks.size() + "/-" + removedBlocks.size() + " blocks"
+                + (mergedNetworks.isEmpty() ? "" : ", merged " + mergedNetworks)
+                + (split ? ", split" : "") + (disksChanged ? ", disks" : "") + (removed ? ", removed" : "") + "}";
+    }
+}
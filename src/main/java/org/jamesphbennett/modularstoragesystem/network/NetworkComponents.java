@@ -0,0 +1,272 @@
+package org.jamesphbennett.modularstoragesystem.network;
+
+import org.bukkit.Location;
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.utils.BlockPos;
+import org.jamesphbennett.modularstoragesystem.utils.LongIntHashMap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Union-find over every marked MSS block, grouping face-adjacent blocks into connected components
+ * Each component tracks its size and how many servers, security terminals and cables it holds,
+ * so placement conflict and limit checks only have to look at the components next to the new block.
+ * Adding a block only unions; removing one rebuilds just the component it belonged to.
+ */
+public class NetworkComponents {
+
+    /**
+     * Combined counts of the distinct components adjacent to a position
+     */
+    public record AdjacentComponents(int components, int serverComponents, int servers, int securityTerminals,
+                                     int blocks, int cables) {
+    }
+
+    // World name -> packed block position -> node
+    private final Map<String, LongIntHashMap> nodesByWorld = new HashMap<>();
+
+    // Per node
+    private int[] parent = new int[64];
+    private int[] next = new int[64]; // circular list of the members of a component
+    private long[] positions = new long[64];
+    private NetworkConnectivityManager.BlockType[] types = new NetworkConnectivityManager.BlockType[64];
+
+    // Per component, only valid on the root node
+    private int[] size = new int[64];
+    private int[] servers = new int[64];
+    private int[] securityTerminals = new int[64];
+    private int[] cables = new int[64];
+
+    private int nodeCount;
+    private int[] freeNodes = new int[16];
+    private int freeCount;
+
+    public NetworkComponents(ModularStorageSystem plugin) {
+        plugin.getBlockMarkerCache().forEachMarker(this::add);
+        plugin.debugLog("Built network components for " + (nodeCount - freeCount) + " MSS blocks");
+    }
+
+    /**
+     * Add a marked block and union it with its marked neighbours
+     */
+    public synchronized void add(String worldName, int x, int y, int z, String blockType) {
+        LongIntHashMap nodes = nodesByWorld.computeIfAbsent(worldName, k -> new LongIntHashMap());
+        long pos = BlockPos.pack(x, y, z);
+        if (nodes.get(pos) != LongIntHashMap.MISSING) {
+            // Marker replaced, rebuild with the new type
+            remove(worldName, x, y, z);
+        }
+
+        int node = allocateNode();
+        positions[node] = pos;
+        types[node] = toBlockType(blockType);
+        resetNode(node);
+        nodes.put(pos, node);
+
+        unionWithNeighbours(nodes, node);
+    }
+
+    /**
+     * Remove a marked block, the rest of its component is re-linked in case it split
+     */
+    public synchronized void remove(String worldName, int x, int y, int z) {
+        LongIntHashMap nodes = nodesByWorld.get(worldName);
+        if (nodes == null) {
+            return;
+        }
+
+        int removed = nodes.remove(BlockPos.pack(x, y, z));
+        if (removed == LongIntHashMap.MISSING) {
+            return;
+        }
+
+        // Collect the other members of the component before the links are reset
+        int[] members = new int[size[find(removed)] - 1];
+        int count = 0;
+        for (int member = next[removed]; member != removed; member = next[member]) {
+            members[count++] = member;
+        }
+
+        for (int i = 0; i < count; i++) {
+            resetNode(members[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            unionWithNeighbours(nodes, members[i]);
+        }
+
+        types[removed] = null;
+        freeNode(removed);
+    }
+
+    /**
+     * Get the combined counts of the distinct components next to a position, what a block placed there would join
+     */
+    public synchronized AdjacentComponents getAdjacentComponents(Location location) {
+        LongIntHashMap nodes = location.getWorld() != null ? nodesByWorld.get(location.getWorld().getName()) : null;
+        if (nodes == null) {
+            return new AdjacentComponents(0, 0, 0, 0, 0, 0);
+        }
+
+        long pos = BlockPos.pack(location);
+        int[] roots = new int[6];
+        int rootCount = 0;
+        int serverComponents = 0;
+        int totalServers = 0;
+        int totalSecurityTerminals = 0;
+        int totalBlocks = 0;
+        int totalCables = 0;
+
+        for (int face = 0; face < 6; face++) {
+            int neighbour = nodes.get(BlockPos.offset(pos, face));
+            if (neighbour == LongIntHashMap.MISSING) continue;
+
+            int root = find(neighbour);
+            boolean seen = false;
+            for (int i = 0; i < rootCount; i++) {
+                if (roots[i] == root) {
+                    seen = true;
+                    break;
+                }
+            }
+            if (seen) continue;
+
+            roots[rootCount++] = root;
+            if (servers[root] > 0) serverComponents++;
+            totalServers += servers[root];
+            totalSecurityTerminals += securityTerminals[root];
+            totalCables += cables[root];
+            totalBlocks += size[root] - cables[root];
+        }
+
+        return new AdjacentComponents(rootCount, serverComponents, totalServers, totalSecurityTerminals, totalBlocks, totalCables);
+    }
+
+    /**
+     * Get the positions of every block in the component containing a position
+     *
+     * @return the packed positions, just the position itself if it isn't marked
+     */
+    public synchronized long[] getComponentPositions(String worldName, long pos) {
+        LongIntHashMap nodes = nodesByWorld.get(worldName);
+        int node = nodes != null ? nodes.get(pos) : LongIntHashMap.MISSING;
+        if (node == LongIntHashMap.MISSING) {
+            return new long[]{pos};
+        }
+
+        long[] result = new long[size[find(node)]];
+        int count = 0;
+        int member = node;
+        do {
+            result[count++] = positions[member];
+            member = next[member];
+        } while (member != node);
+        return result;
+    }
+
+    /**
+     * Get the number of blocks in the component containing a position
+     *
+     * @return the size, 0 if the position isn't marked
+     */
+    public synchronized int getComponentSize(String worldName, long pos) {
+        LongIntHashMap nodes = nodesByWorld.get(worldName);
+        int node = nodes != null ? nodes.get(pos) : LongIntHashMap.MISSING;
+        return node != LongIntHashMap.MISSING ? size[find(node)] : 0;
+    }
+
+    private void unionWithNeighbours(LongIntHashMap nodes, int node) {
+        for (int face = 0; face < 6; face++) {
+            int neighbour = nodes.get(BlockPos.offset(positions[node], face));
+            if (neighbour != LongIntHashMap.MISSING) {
+                union(node, neighbour);
+            }
+        }
+    }
+
+    private int find(int node) {
+        int root = node;
+        while (parent[root] != root) {
+            root = parent[root];
+        }
+
+        // Path compression
+        while (parent[node] != root) {
+            int following = parent[node];
+            parent[node] = root;
+            node = following;
+        }
+        return root;
+    }
+
+    private void union(int a, int b) {
+        int rootA = find(a);
+        int rootB = find(b);
+        if (rootA == rootB) {
+            return;
+        }
+
+        // Attach the smaller component under the larger one
+        if (size[rootA] < size[rootB]) {
+            int swap = rootA;
+            rootA = rootB;
+            rootB = swap;
+        }
+
+        parent[rootB] = rootA;
+        size[rootA] += size[rootB];
+        servers[rootA] += servers[rootB];
+        securityTerminals[rootA] += securityTerminals[rootB];
+        cables[rootA] += cables[rootB];
+
+        // Splice the two member lists together
+        int swap = next[rootA];
+        next[rootA] = next[rootB];
+        next[rootB] = swap;
+    }
+
+    private void resetNode(int node) {
+        NetworkConnectivityManager.BlockType type = types[node];
+        parent[node] = node;
+        next[node] = node;
+        size[node] = 1;
+        servers[node] = type == NetworkConnectivityManager.BlockType.STORAGE_SERVER ? 1 : 0;
+        securityTerminals[node] = type == NetworkConnectivityManager.BlockType.SECURITY_TERMINAL ? 1 : 0;
+        cables[node] = type == NetworkConnectivityManager.BlockType.NETWORK_CABLE ? 1 : 0;
+    }
+
+    private int allocateNode() {
+        if (freeCount > 0) {
+            return freeNodes[--freeCount];
+        }
+
+        if (nodeCount == parent.length) {
+            int capacity = parent.length << 1;
+            parent = Arrays.copyOf(parent, capacity);
+            next = Arrays.copyOf(next, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            types = Arrays.copyOf(types, capacity);
+            size = Arrays.copyOf(size, capacity);
+            servers = Arrays.copyOf(servers, capacity);
+            securityTerminals = Arrays.copyOf(securityTerminals, capacity);
+            cables = Arrays.copyOf(cables, capacity);
+        }
+        return nodeCount++;
+    }
+
+    private void freeNode(int node) {
+        if (freeCount == freeNodes.length) {
+            freeNodes = Arrays.copyOf(freeNodes, freeCount << 1);
+        }
+        freeNodes[freeCount++] = node;
+    }
+
+    private static NetworkConnectivityManager.BlockType toBlockType(String blockType) {
+        try {
+            return NetworkConnectivityManager.BlockType.valueOf(blockType);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return NetworkConnectivityManager.BlockType.UNKNOWN;
+        }
+    }
+}
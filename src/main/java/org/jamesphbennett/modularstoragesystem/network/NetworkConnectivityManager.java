@@ -2,13 +2,13 @@ package org.jamesphbennett.modularstoragesystem.network;
 
 import org.bukkit.Location;
 import org.bukkit.Material;
+import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.utils.BlockPos;
+import org.jamesphbennett.modularstoragesystem.utils.LongArrayQueue;
+import org.jamesphbennett.modularstoragesystem.utils.LongHashSet;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.SQLException;
 import java.util.*;
 
 /**
@@ -37,62 +37,51 @@ public class NetworkConnectivityManager {
             connectedBlocks.put(type, new HashSet<>());
         }
 
-        Set<Location> visited = new HashSet<>();
-        Queue<Location> toCheck = new LinkedList<>();
+        World world = location.getWorld();
+        LongHashSet visited = new LongHashSet();
+        LongArrayQueue toCheck = new LongArrayQueue();
 
-        // Start with all adjacent locations
-        for (Location adjacent : getAdjacentLocations(location)) {
-            if (!visited.contains(adjacent)) {
-                toCheck.add(adjacent);
-                visited.add(adjacent);
-            }
-        }
+        long start = BlockPos.pack(location);
+        visited.add(start); // Don't revisit the placement location
 
-        visited.add(location); // Don't revisit the placement location
+        // Start with all adjacent locations
+        enqueueAdjacent(start, visited, toCheck);
 
         while (!toCheck.isEmpty()) {
-            Location current = toCheck.poll();
-            Block block = current.getBlock();
-
-            if (isNetworkBlockOrCable(block)) {
-                BlockType blockType = getBlockType(block);
-                String networkId = getNetworkIdForLocation(current);
-
-                // Handle network blocks (non-cables)
-                if (blockType != BlockType.NETWORK_CABLE) {
-                    connectedBlocks.get(blockType).add(current);
-                    
-                    // Add network ID if this block has one
-                    if (networkId != null && !networkId.startsWith("orphaned_")) {
-                        if (isValidNetwork(networkId) || networkId.startsWith("standalone_")) {
-                            connectedNetworkIds.add(networkId);
-                        }
-                    }
-                    
-                    // MSS blocks (terminals, drive bays) can extend networks like cables!
-                    // If they have no network ID, continue traversing through them
-                    if (networkId == null && canExtendNetwork(blockType)) {
-                        for (Location mssAdjacent : getAdjacentLocations(current)) {
-                            if (!visited.contains(mssAdjacent)) {
-                                visited.add(mssAdjacent);
-                                toCheck.add(mssAdjacent);
-                            }
-                        }
+            long current = toCheck.poll();
+            int x = BlockPos.getX(current);
+            int y = BlockPos.getY(current);
+            int z = BlockPos.getZ(current);
+
+            BlockType blockType = getBlockType(world, x, y, z);
+            if (blockType == BlockType.UNKNOWN) continue;
+
+            String networkId = getNetworkIdForLocation(world, x, y, z);
+
+            // Handle network blocks (non-cables)
+            if (blockType != BlockType.NETWORK_CABLE) {
+                connectedBlocks.get(blockType).add(BlockPos.toLocation(world, current));
+
+                // Add network ID if this block has one
+                if (networkId != null && !networkId.startsWith("orphaned_")) {
+                    if (isValidNetwork(networkId) || networkId.startsWith("standalone_")) {
+                        connectedNetworkIds.add(networkId);
                     }
-                } else {
-                    
-                    // If cable has no network ID, continue traversing through it
-                    if (networkId == null) {
-                        for (Location cableAdjacent : getAdjacentLocations(current)) {
-                            if (!visited.contains(cableAdjacent)) {
-                                visited.add(cableAdjacent);
-                                toCheck.add(cableAdjacent);
-                            }
-                        }
-                    } else if (!networkId.startsWith("orphaned_")) {
-                        if (isValidNetwork(networkId) || networkId.startsWith("standalone_")) {
-                            connectedNetworkIds.add(networkId);
-                        }
+                }
+
+                // MSS blocks (terminals, drive bays) can extend networks like cables!
+                // If they have no network ID, continue traversing through them
+                if (networkId == null && canExtendNetwork(blockType)) {
+                    enqueueAdjacent(current, visited, toCheck);
+                }
+            } else {
+
+                // If cable has no network ID, continue traversing through it
+                if (networkId == null) {
+                    enqueueAdjacent(current, visited, toCheck);
+                } else if (!networkId.startsWith("orphaned_")) {
+                    if (isValidNetwork(networkId) || networkId.startsWith("standalone_")) {
+                        connectedNetworkIds.add(networkId);
                     }
                 }
             }
@@ -103,199 +92,109 @@ public class NetworkConnectivityManager {
 
     /**
      * Check if placing a block would create conflicts
+     * Uses the union-find components next to the location, so no traversal or database query is needed
      */
     public ConflictResult checkPlacementConflicts(Location location, BlockType blockType) {
-        NetworkConnectivity connectivity = analyzeLocation(location);
-        
+        NetworkComponents.AdjacentComponents adjacent = plugin.getNetworkComponents().getAdjacentComponents(location);
+
         // All MSS blocks and cables need to check connection conflicts
         // Storage servers and security terminals get additional unique placement checks
-        ConflictResult connectionResult = checkConnectionConflicts(connectivity, blockType);
+        ConflictResult connectionResult = checkConnectionConflicts(adjacent, blockType);
         if (connectionResult.hasConflict()) {
             return connectionResult;
         }
 
         // Additional unique placement checks for special blocks
         return switch (blockType) {
-            case STORAGE_SERVER -> checkStorageServerConflicts(connectivity);
-            case SECURITY_TERMINAL -> checkSecurityTerminalConflicts(connectivity);
+            case STORAGE_SERVER -> checkStorageServerConflicts(adjacent);
+            case SECURITY_TERMINAL -> checkSecurityTerminalConflicts(adjacent);
             default -> ConflictResult.noConflict();
         };
     }
 
     // Storage server placement conflicts
-    private ConflictResult checkStorageServerConflicts(NetworkConnectivity connectivity) {
-        for (String networkId : connectivity.getConnectedNetworkIds()) {
-            if (networkHasStorageServer(networkId)) {
-                String message = plugin.getMessageManager().getMessage((org.bukkit.entity.Player) null, "errors.placement.storage-server-conflict");
-                return ConflictResult.conflict(ConflictType.MULTIPLE_STORAGE_SERVERS, message);
-            }
-        }
-        
-        Set<Location> storageServers = connectivity.getConnectedBlocks(BlockType.STORAGE_SERVER);
-        if (!storageServers.isEmpty()) {
+    private ConflictResult checkStorageServerConflicts(NetworkComponents.AdjacentComponents adjacent) {
+        if (adjacent.servers() > 0) {
             String message = plugin.getMessageManager().getMessage((org.bukkit.entity.Player) null, "errors.placement.storage-server-conflict");
             return ConflictResult.conflict(ConflictType.MULTIPLE_STORAGE_SERVERS, message);
         }
-        
+
         return ConflictResult.noConflict();
     }
 
     // Security terminal placement conflicts
-    private ConflictResult checkSecurityTerminalConflicts(NetworkConnectivity connectivity) {
-        for (String networkId : connectivity.getConnectedNetworkIds()) {
-            if (networkHasSecurityTerminal(networkId)) {
-                String message = plugin.getMessageManager().getMessage((org.bukkit.entity.Player) null, "errors.placement.security-terminal-conflict");
-                return ConflictResult.conflict(ConflictType.MULTIPLE_SECURITY_TERMINALS, message);
-            }
-        }
-        
-        Set<Location> securityTerminals = connectivity.getConnectedBlocks(BlockType.SECURITY_TERMINAL);
-        if (!securityTerminals.isEmpty()) {
+    private ConflictResult checkSecurityTerminalConflicts(NetworkComponents.AdjacentComponents adjacent) {
+        if (adjacent.securityTerminals() > 0) {
             String message = plugin.getMessageManager().getMessage((org.bukkit.entity.Player) null, "errors.placement.security-terminal-conflict");
             return ConflictResult.conflict(ConflictType.MULTIPLE_SECURITY_TERMINALS, message);
         }
-        
+
         return ConflictResult.noConflict();
     }
 
-    // Network connection conflicts 
-    private ConflictResult checkConnectionConflicts(NetworkConnectivity connectivity, BlockType placingBlockType) {
+    // Network connection conflicts, every adjacent component would be merged into one network
+    private ConflictResult checkConnectionConflicts(NetworkComponents.AdjacentComponents adjacent, BlockType placingBlockType) {
         if (!canExtendNetwork(placingBlockType)) {
             return ConflictResult.noConflict();
         }
-        
-        Set<String> networksWithStorageServers = new HashSet<>();
-        Set<String> networksWithSecurityTerminals = new HashSet<>();
-        int standaloneStorageServers = 0;
-        int standaloneSecurityTerminals = 0;
-        
-        for (String networkId : connectivity.getConnectedNetworkIds()) {
-            if (networkHasStorageServer(networkId)) {
-                networksWithStorageServers.add(networkId);
-            }
-            if (networkHasSecurityTerminal(networkId)) {
-                networksWithSecurityTerminals.add(networkId);
-            }
-        }
-        
-        for (Location storageServer : connectivity.getConnectedBlocks(BlockType.STORAGE_SERVER)) {
-            String networkId = getNetworkIdForLocation(storageServer);
-            if (networkId == null) {
-                standaloneStorageServers++;
-            }
-        }
-        
-        for (Location securityTerminal : connectivity.getConnectedBlocks(BlockType.SECURITY_TERMINAL)) {
-            String networkId = getNetworkIdForLocation(securityTerminal);
-            if (networkId == null) {
-                standaloneSecurityTerminals++;
-            }
-        }
-        
-        // Storage server conflicts
-        int storageServerSources = networksWithStorageServers.size() + standaloneStorageServers;
-        boolean hasMultipleStorageServerSources = storageServerSources > 1;
-        
-        // Security terminal conflicts  
-        int securityTerminalSources = networksWithSecurityTerminals.size() + standaloneSecurityTerminals;
-        boolean hasMultipleSecurityTerminalSources = securityTerminalSources > 1;
-        if (hasMultipleStorageServerSources) {
+
+        if (adjacent.servers() > 1) {
             String message = plugin.getMessageManager().getMessage((org.bukkit.entity.Player) null, "errors.placement.multiple-storage-servers");
             return ConflictResult.conflict(ConflictType.MULTIPLE_STORAGE_SERVERS, message);
         }
-        
-        if (hasMultipleSecurityTerminalSources) {
+
+        if (adjacent.securityTerminals() > 1) {
             String message = plugin.getMessageManager().getMessage((org.bukkit.entity.Player) null, "errors.placement.multiple-security-terminals");
             return ConflictResult.conflict(ConflictType.MULTIPLE_SECURITY_TERMINALS, message);
         }
-        
-        return ConflictResult.noConflict();
-    }
-
-    private boolean networkHasStorageServer(String networkId) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM network_blocks WHERE network_id = ? AND block_type = 'STORAGE_SERVER'")) {
-
-            stmt.setString(1, networkId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Error checking storage server in network: " + e.getMessage());
-            return false;
-        }
-    }
 
-    private boolean networkHasSecurityTerminal(String networkId) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM security_terminals WHERE network_id = ?")) {
-
-            stmt.setString(1, networkId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Error checking security terminal in network: " + e.getMessage());
-            return false;
+        // Block limit of the merged network, cables are limited separately by the cable manager
+        if (placingBlockType != BlockType.NETWORK_CABLE && adjacent.blocks() + 1 > plugin.getConfigManager().getMaxNetworkBlocks()) {
+            String message = plugin.getMessageManager().getMessage((org.bukkit.entity.Player) null, "errors.placement.network-size-limit",
+                    "max", plugin.getConfigManager().getMaxNetworkBlocks());
+            return ConflictResult.conflict(ConflictType.NETWORK_LIMIT_EXCEEDED, message);
         }
-    }
 
-    private boolean isNetworkBlockOrCable(Block block) {
-        return getBlockType(block) != BlockType.UNKNOWN;
+        return ConflictResult.noConflict();
     }
 
     public BlockType getBlockType(Block block) {
-        if (block.getType() == Material.CHISELED_TUFF && isMarkedAsCustomBlock(block.getLocation(), "STORAGE_SERVER")) {
-            return BlockType.STORAGE_SERVER;
-        }
-        if (block.getType() == Material.CHISELED_TUFF_BRICKS && isMarkedAsCustomBlock(block.getLocation(), "DRIVE_BAY")) {
-            return BlockType.DRIVE_BAY;
-        }
-        if (block.getType() == Material.CRAFTER && isMarkedAsCustomBlock(block.getLocation(), "MSS_TERMINAL")) {
-            return BlockType.MSS_TERMINAL;
-        }
-        if (block.getType() == Material.OBSERVER && isMarkedAsCustomBlock(block.getLocation(), "SECURITY_TERMINAL")) {
-            return BlockType.SECURITY_TERMINAL;
-        }
-        if (block.getType() == Material.HEAVY_CORE && isMarkedAsCustomBlock(block.getLocation(), "NETWORK_CABLE")) {
-            return BlockType.NETWORK_CABLE;
-        }
-        if (block.getType() == Material.PLAYER_HEAD || block.getType() == Material.PLAYER_WALL_HEAD) {
-            if (isMarkedAsCustomBlock(block.getLocation(), "EXPORTER")) {
-                return BlockType.EXPORTER;
-            }
-            if (isMarkedAsCustomBlock(block.getLocation(), "IMPORTER")) {
-                return BlockType.IMPORTER;
-            }
-        }
-        return BlockType.UNKNOWN;
+        return getBlockType(block.getWorld(), block.getX(), block.getY(), block.getZ());
     }
 
-    private boolean isMarkedAsCustomBlock(Location location, String blockType) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ? AND block_type = ?")) {
+    /**
+     * Get the MSS block type at a block position, the marker and the block material have to agree
+     */
+    public BlockType getBlockType(World world, int x, int y, int z) {
+        String marker = plugin.getBlockMarkerCache().getBlockType(world, x, y, z);
+        if (marker == null) {
+            return BlockType.UNKNOWN;
+        }
 
-            stmt.setString(1, location.getWorld().getName());
-            stmt.setInt(2, location.getBlockX());
-            stmt.setInt(3, location.getBlockY());
-            stmt.setInt(4, location.getBlockZ());
-            stmt.setString(5, blockType);
+        return resolveBlockType(marker, world.getType(x, y, z));
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error checking custom block marker: " + e.getMessage());
-            return false;
-        }
+    /**
+     * Get the MSS block type for a marker and the material found at its position
+     * Doesn't touch the world, so it can be used with chunk snapshots off the main thread
+     */
+    public static BlockType resolveBlockType(String marker, Material type) {
+        boolean isHead = type == Material.PLAYER_HEAD || type == Material.PLAYER_WALL_HEAD;
+        return switch (marker) {
+            case "STORAGE_SERVER" -> type == Material.CHISELED_TUFF ? BlockType.STORAGE_SERVER : BlockType.UNKNOWN;
+            case "DRIVE_BAY" -> type == Material.CHISELED_TUFF_BRICKS ? BlockType.DRIVE_BAY : BlockType.UNKNOWN;
+            case "MSS_TERMINAL" -> type == Material.CRAFTER ? BlockType.MSS_TERMINAL : BlockType.UNKNOWN;
+            case "SECURITY_TERMINAL" -> type == Material.OBSERVER ? BlockType.SECURITY_TERMINAL : BlockType.UNKNOWN;
+            case "NETWORK_CABLE" -> type == Material.HEAVY_CORE ? BlockType.NETWORK_CABLE : BlockType.UNKNOWN;
+            case "EXPORTER" -> isHead ? BlockType.EXPORTER : BlockType.UNKNOWN;
+            case "IMPORTER" -> isHead ? BlockType.IMPORTER : BlockType.UNKNOWN;
+            default -> BlockType.UNKNOWN;
+        };
     }
 
-    private String getNetworkIdForLocation(Location location) {
+    private String getNetworkIdForLocation(World world, int x, int y, int z) {
         try {
-            return plugin.getNetworkManager().getNetworkId(location);
+            return plugin.getNetworkManager().getNetworkId(world, x, y, z);
         } catch (Exception e) {
             plugin.getLogger().warning("Error getting network ID for location: " + e.getMessage());
             return null;
@@ -311,25 +210,13 @@ public class NetworkConnectivityManager {
         }
     }
 
-    private List<Location> getAdjacentLocations(Location center) {
-        List<Location> adjacent = new ArrayList<>();
-        int[] offsets = {-1, 0, 1};
-
-        for (int dx : offsets) {
-            for (int dy : offsets) {
-                for (int dz : offsets) {
-                    if (dx == 0 && dy == 0 && dz == 0) continue;
-
-                    // Only check face-adjacent blocks (not diagonal)
-                    int nonZero = (dx != 0 ? 1 : 0) + (dy != 0 ? 1 : 0) + (dz != 0 ? 1 : 0);
-                    if (nonZero == 1) {
-                        adjacent.add(center.clone().add(dx, dy, dz));
-                    }
-                }
+    private static void enqueueAdjacent(long pos, LongHashSet visited, LongArrayQueue toCheck) {
+        for (int face = 0; face < 6; face++) {
+            long adjacent = BlockPos.offset(pos, face);
+            if (visited.add(adjacent)) {
+                toCheck.add(adjacent);
             }
         }
-
-        return adjacent;
     }
 
     /**
@@ -0,0 +1,101 @@
+package org.jamesphbennett.modularstoragesystem.network;
+
+import org.bukkit.Location;
+import org.bukkit.scheduler.BukkitTask;
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Collects network events and delivers them to listeners in batches
+ * Events for the same network are coalesced into one NetworkChange, delivered off the main thread
+ * once no new event arrived for the configured window. A steady stream of events is flushed after four windows.
+ */
+public class NetworkEventBus {
+
+    private final ModularStorageSystem plugin;
+    private final List<NetworkManager.NetworkUpdateListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by this
+    private final Map<String, NetworkChange> pending = new LinkedHashMap<>();
+    private BukkitTask flushTask;
+    private long firstEventTime;
+    private long lastEventTime;
+
+    public NetworkEventBus(ModularStorageSystem plugin) {
+        this.plugin = plugin;
+    }
+
+    public void registerListener(NetworkManager.NetworkUpdateListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * A network was registered or re-registered
+     */
+    public void postUpdated(String networkId, Collection<Location> added, Collection<Location> removed,
+                            Collection<String> merged, boolean split) {
+        post(networkId, change -> change.updated(added, removed, merged, split));
+    }
+
+    /**
+     * Disks were inserted into or taken out of a drive bay of a network
+     */
+    public void postDisksChanged(String networkId) {
+        post(networkId, NetworkChange::disksChanged);
+    }
+
+    /**
+     * A network was unregistered
+     */
+    public void postRemoved(String networkId) {
+        post(networkId, NetworkChange::removed);
+    }
+
+    private synchronized void post(String networkId, Consumer<NetworkChange> event) {
+        event.accept(pending.computeIfAbsent(networkId, NetworkChange::new));
+
+        lastEventTime = System.currentTimeMillis();
+        if (flushTask == null && plugin.isEnabled()) {
+            firstEventTime = lastEventTime;
+            flushTask = plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, this::flush, getWindowTicks());
+        }
+    }
+
+    private void flush() {
+        List<NetworkChange> changes;
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            long windowMillis = getWindowTicks() * 50L;
+
+            // Keep waiting while events are still arriving, up to four windows
+            if (now - lastEventTime < windowMillis && now - firstEventTime < windowMillis * 4 && plugin.isEnabled()) {
+                flushTask = plugin.getServer().getScheduler().runTaskLaterAsynchronously(plugin, this::flush, getWindowTicks());
+                return;
+            }
+
+            changes = List.copyOf(pending.values());
+            pending.clear();
+            flushTask = null;
+        }
+
+        if (changes.isEmpty()) {
+            return;
+        }
+        plugin.debugLog("Delivering " + changes.size() + " coalesced network changes: " + changes);
+
+        for (NetworkManager.NetworkUpdateListener listener : listeners) {
+            try {
+                listener.onNetworkChanges(changes);
+            } catch (Exception e) {
+                plugin.getLogger().warning("Error notifying listener of network changes: " + e.getMessage());
+            }
+        }
+    }
+
+    private long getWindowTicks() {
+        return Math.max(1, plugin.getConfigManager().getNetworkEventWindow());
+    }
+}
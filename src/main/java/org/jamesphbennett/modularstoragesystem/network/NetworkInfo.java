@@ -2,6 +2,7 @@ package org.jamesphbennett.modularstoragesystem.network;
 
 import org.bukkit.Location;
 
+import java.util.Map;
 import java.util.Set;
 
 public class NetworkInfo {
@@ -13,9 +14,11 @@ public class NetworkInfo {
     private final Set<Location> allBlocks;
     private final Set<Location> networkCables;
     private final Set<Location> securityTerminals;
+    private final Map<Location, String> blockTypes;
 
-    public NetworkInfo(String networkId, Location storageServer, Set<Location> driveBays,
-                       Set<Location> terminals, Set<Location> allBlocks, Set<Location> networkCables, Set<Location> securityTerminals) {
+    public NetworkInfo(String networkId, Location storageServer, Set<Location> driveBays, Set<Location> terminals,
+                       Set<Location> allBlocks, Set<Location> networkCables, Set<Location> securityTerminals,
+                       Map<Location, String> blockTypes) {
         this.networkId = networkId;
         this.storageServer = storageServer;
         this.driveBays = driveBays;
@@ -23,12 +26,17 @@ public class NetworkInfo {
         this.allBlocks = allBlocks;
         this.networkCables = networkCables;
         this.securityTerminals = securityTerminals;
+        this.blockTypes = blockTypes;
     }
 
     public String getNetworkId() {
         return networkId;
     }
 
+    public Location getStorageServer() {
+        return storageServer;
+    }
+
     public Set<Location> getDriveBays() {
         return driveBays;
     }
@@ -49,6 +57,15 @@ public class NetworkInfo {
         return securityTerminals;
     }
 
+    /**
+     * Get the block type a network block had when the network was detected, without reading the world
+     *
+     * @return the block type name, or null if the location is not part of the network
+     */
+    public String getBlockType(Location location) {
+        return blockTypes.get(location);
+    }
+
     public boolean isValid() {
         return storageServer != null && !driveBays.isEmpty() && !terminals.isEmpty();
     }
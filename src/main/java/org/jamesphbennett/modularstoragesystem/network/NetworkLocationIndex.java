@@ -0,0 +1,93 @@
+package org.jamesphbennett.modularstoragesystem.network;
+
+import org.bukkit.Location;
+
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the network ID stored for each exporter and security terminal
+ * Filled on first lookup and dropped whenever the stored network ID may have changed
+ */
+public class NetworkLocationIndex implements NetworkManager.NetworkUpdateListener {
+
+    /**
+     * Reads the stored network ID of a location from the database
+     */
+    @FunctionalInterface
+    public interface Loader {
+        String load(Location location) throws SQLException;
+    }
+
+    // Stands in for a missing row or a NULL network ID, the maps can't hold null
+    private static final String NONE = "";
+
+    private final Map<Location, String> exporterNetworks = new ConcurrentHashMap<>();
+    private final Map<Location, String> securityTerminalNetworks = new ConcurrentHashMap<>();
+
+    // Bumped on every invalidation, so a load that raced with one isn't cached
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Get the network ID stored for an exporter, loading it on a miss
+     */
+    public String getExporterNetworkId(Location location, Loader loader) throws SQLException {
+        return get(exporterNetworks, location, loader);
+    }
+
+    /**
+     * Get the network ID stored for a security terminal, loading it on a miss
+     */
+    public String getSecurityTerminalNetworkId(Location location, Loader loader) throws SQLException {
+        return get(securityTerminalNetworks, location, loader);
+    }
+
+    /**
+     * Drop the cached network ID of the exporter or security terminal at a location
+     */
+    public void invalidate(Location location) {
+        Location key = key(location);
+        generation.incrementAndGet();
+        exporterNetworks.remove(key);
+        securityTerminalNetworks.remove(key);
+    }
+
+    /**
+     * Drop every cached entry pointing at a network
+     */
+    public void invalidateNetwork(String networkId) {
+        generation.incrementAndGet();
+        exporterNetworks.values().removeIf(networkId::equals);
+        securityTerminalNetworks.values().removeIf(networkId::equals);
+    }
+
+    @Override
+    public void onNetworkUpdated(String networkId) {
+        invalidateNetwork(networkId);
+    }
+
+    @Override
+    public void onNetworkRemoved(String networkId) {
+        invalidateNetwork(networkId);
+    }
+
+    private String get(Map<Location, String> networks, Location location, Loader loader) throws SQLException {
+        Location key = key(location);
+        String networkId = networks.get(key);
+        if (networkId == null) {
+            long loadGeneration = generation.get();
+            String loaded = loader.load(key);
+            networkId = loaded != null ? loaded : NONE;
+            if (generation.get() == loadGeneration) {
+                networks.putIfAbsent(key, networkId);
+            }
+        }
+        return networkId.equals(NONE) ? null : networkId;
+    }
+
+    private static Location key(Location location) {
+        return new Location(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+}
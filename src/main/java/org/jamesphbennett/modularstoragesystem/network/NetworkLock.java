@@ -0,0 +1,108 @@
+package org.jamesphbennett.modularstoragesystem.network;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Read-write lock of one network, with wait and hold time counters
+ * Writers are exclusive, readers share the lock and short reads can run optimistically without locking at all.
+ * Not reentrant, operations must not take the lock of the same network again.
+ */
+public class NetworkLock {
+
+    /**
+     * Lock usage of a network since the lock was created, times in nanoseconds
+     */
+    public record Stats(String networkId, long acquisitions, long contended, long waitNanos, long maxWaitNanos,
+                        long holdNanos, long optimisticReads, long optimisticRetries) {
+    }
+
+    private final String networkId;
+    private final StampedLock lock = new StampedLock();
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder holdNanos = new LongAdder();
+    private final LongAdder optimisticReads = new LongAdder();
+    private final LongAdder optimisticRetries = new LongAdder();
+
+    NetworkLock(String networkId) {
+        this.networkId = networkId;
+    }
+
+    /**
+     * Run an operation holding the lock exclusively
+     */
+    public <T> T write(NetworkManager.NetworkOperation<T> operation) throws Exception {
+        long stamp = lock.tryWriteLock();
+        if (stamp == 0) {
+            long start = System.nanoTime();
+            stamp = lock.writeLock();
+            recordWait(System.nanoTime() - start);
+        }
+        return runHolding(stamp, operation);
+    }
+
+    /**
+     * Run an operation sharing the lock with other readers
+     */
+    public <T> T read(NetworkManager.NetworkOperation<T> operation) throws Exception {
+        long stamp = lock.tryReadLock();
+        if (stamp == 0) {
+            long start = System.nanoTime();
+            stamp = lock.readLock();
+            recordWait(System.nanoTime() - start);
+        }
+        return runHolding(stamp, operation);
+    }
+
+    /**
+     * Run a read without locking, repeating it under the shared lock if a writer got in meanwhile
+     * Only for operations that are side effect free and safe to run against changing state
+     */
+    public <T> T optimisticRead(NetworkManager.NetworkOperation<T> operation) throws Exception {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            T result;
+            try {
+                result = operation.execute();
+            } catch (Exception e) {
+                // Read inconsistent state, only trust the failure if nothing changed
+                if (lock.validate(stamp)) throw e;
+                result = null;
+            }
+            if (lock.validate(stamp)) {
+                optimisticReads.increment();
+                return result;
+            }
+        }
+
+        optimisticRetries.increment();
+        return read(operation);
+    }
+
+    public Stats getStats() {
+        return new Stats(networkId, acquisitions.sum(), contended.sum(), waitNanos.sum(), maxWaitNanos.get(),
+                holdNanos.sum(), optimisticReads.sum(), optimisticRetries.sum());
+    }
+
+    private <T> T runHolding(long stamp, NetworkManager.NetworkOperation<T> operation) throws Exception {
+        acquisitions.increment();
+        long start = System.nanoTime();
+        try {
+            return operation.execute();
+        } finally {
+            holdNanos.add(System.nanoTime() - start);
+            lock.unlock(stamp);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        contended.increment();
+        waitNanos.add(nanos);
+        maxWaitNanos.accumulate(nanos);
+    }
+}
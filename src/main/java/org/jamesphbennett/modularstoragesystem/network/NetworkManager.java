@@ -1,103 +1,226 @@
 package org.jamesphbennett.modularstoragesystem.network;
 
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.Location;
-import org.bukkit.Material;
-import org.bukkit.block.Block;
+import org.bukkit.World;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.utils.BlockPos;
+import org.jamesphbennett.modularstoragesystem.utils.LongArrayQueue;
+import org.jamesphbennett.modularstoragesystem.utils.LongHashSet;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
 public class NetworkManager {
 
     private final ModularStorageSystem plugin;
 
     // Network locks for thread safety
-    private final Map<String, ReentrantLock> networkLocks = new ConcurrentHashMap<>();
+    private final Map<String, NetworkLock> networkLocks = new ConcurrentHashMap<>();
 
     // Flag to reduce redundant drive bay restoration logging
     private final Set<String> restorationLoggedNetworks = new HashSet<>();
 
-    // Network update listeners
-    private final List<NetworkUpdateListener> updateListeners = new ArrayList<>();
+    // Coalesces network events and delivers them to the update listeners
+    private final NetworkEventBus eventBus;
 
-    public NetworkManager(ModularStorageSystem plugin) {
+    // Block to network mapping of all registered networks
+    private final NetworkTopology topology;
+
+    // IDs of every network in the networks table
+    private final Set<String> validNetworks = ConcurrentHashMap.newKeySet();
+
+    // Stored network IDs of exporters and security terminals
+    private final NetworkLocationIndex locationIndex = new NetworkLocationIndex();
+
+    public NetworkManager(ModularStorageSystem plugin) throws SQLException {
         this.plugin = plugin;
+        this.topology = new NetworkTopology(plugin);
+        this.eventBus = new NetworkEventBus(plugin);
+        topology.load();
+        loadValidNetworks();
+        registerUpdateListener(locationIndex);
+    }
+
+    public NetworkTopology getTopology() {
+        return topology;
+    }
+
+    public NetworkLocationIndex getLocationIndex() {
+        return locationIndex;
+    }
+
+    public NetworkEventBus getEventBus() {
+        return eventBus;
+    }
+
+    private void loadValidNetworks() throws SQLException {
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT network_id FROM networks");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                validNetworks.add(rs.getString("network_id"));
+            }
+        }
     }
 
     /**
      * Register a listener to be notified of network updates
      */
     public void registerUpdateListener(NetworkUpdateListener listener) {
-        updateListeners.add(listener);
+        eventBus.registerListener(listener);
     }
 
     /**
-     * Notify all listeners that a network was updated (runs async to avoid blocking main thread)
+     * Get or create a lock for a specific network
      */
-    private void notifyNetworkUpdated(String networkId) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            for (NetworkUpdateListener listener : updateListeners) {
-                try {
-                    listener.onNetworkUpdated(networkId);
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Error notifying listener of network update: " + e.getMessage());
-                }
-            }
-        });
+    private NetworkLock getNetworkLock(String networkId) {
+        return networkLocks.computeIfAbsent(networkId, NetworkLock::new);
     }
 
     /**
-     * Notify all listeners that a network was removed (runs async to avoid blocking main thread)
+     * Execute an operation with network locking
      */
-    private void notifyNetworkRemoved(String networkId) {
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
-            for (NetworkUpdateListener listener : updateListeners) {
-                try {
-                    listener.onNetworkRemoved(networkId);
-                } catch (Exception e) {
-                    plugin.getLogger().warning("Error notifying listener of network removal: " + e.getMessage());
-                }
-            }
-        });
+    public <T> T withNetworkLock(String networkId, NetworkOperation<T> operation) throws Exception {
+        return getNetworkLock(networkId).write(operation);
     }
 
     /**
-     * Get or create a lock for a specific network
+     * Execute a read-only operation, sharing the network lock with other readers
      */
-    private ReentrantLock getNetworkLock(String networkId) {
-        return networkLocks.computeIfAbsent(networkId, k -> new ReentrantLock());
+    public <T> T withNetworkReadLock(String networkId, NetworkOperation<T> operation) throws Exception {
+        return getNetworkLock(networkId).read(operation);
     }
 
     /**
-     * Execute an operation with network locking
+     * Execute a short read-only operation without locking, falling back to the shared lock if a write got in meanwhile
+     * The operation may run twice and must tolerate seeing a write in progress
      */
-    public <T> T withNetworkLock(String networkId, NetworkOperation<T> operation) throws Exception {
-        ReentrantLock lock = getNetworkLock(networkId);
-        lock.lock();
-        try {
-            return operation.execute();
-        } finally {
-            lock.unlock();
+    public <T> T withOptimisticNetworkRead(String networkId, NetworkOperation<T> operation) throws Exception {
+        return getNetworkLock(networkId).optimisticRead(operation);
+    }
+
+    /**
+     * Get the lock usage of every network that currently has a lock, most waited on first
+     */
+    public List<NetworkLock.Stats> getLockStats() {
+        List<NetworkLock.Stats> stats = new ArrayList<>();
+        for (NetworkLock lock : networkLocks.values()) {
+            stats.add(lock.getStats());
         }
+        stats.sort(Comparator.comparingLong(NetworkLock.Stats::waitNanos).reversed());
+        return stats;
     }
 
     /**
      * Detect and validate a network starting from a given block
      */
     public NetworkInfo detectNetwork(Location location) {
-        Set<Location> visited = new HashSet<>();
+        World world = location.getWorld();
+        return detectNetwork(world, BlockPos.pack(location),
+                (x, y, z) -> plugin.getCableManager().getBlockType(world, x, y, z));
+    }
+
+    /**
+     * Detect a network without walking the world on the main thread
+     * Snapshots of the chunks holding the marked blocks connected to the location are taken on the main thread,
+     * the traversal runs on a worker thread and the future completes back on the main thread.
+     * If blocks changed while detecting, the network is detected again synchronously.
+     */
+    public CompletableFuture<NetworkInfo> detectNetworkAsync(Location location) {
+        CompletableFuture<NetworkInfo> result = new CompletableFuture<>();
+        if (!plugin.getConfigManager().isAsyncNetworkDetection()) {
+            try {
+                result.complete(detectNetwork(location));
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        // The traversal only continues through marked blocks, so their chunks are all it can read
+        World world = location.getWorld();
+        long start = BlockPos.pack(location);
+        long[] component = plugin.getNetworkComponents().getComponentPositions(world.getName(), start);
+        Map<Long, ChunkSnapshot> snapshots = new HashMap<>();
+        for (long pos : component) {
+            int chunkX = BlockPos.getX(pos) >> 4;
+            int chunkZ = BlockPos.getZ(pos) >> 4;
+            snapshots.computeIfAbsent(chunkKey(chunkX, chunkZ),
+                    k -> world.getChunkAt(chunkX, chunkZ).getChunkSnapshot(false, false, false));
+        }
+
+        plugin.getServer().getScheduler().runTaskAsynchronously(plugin, () -> {
+            NetworkInfo detected = null;
+            Exception failure = null;
+            try {
+                detected = detectNetwork(world, start, (x, y, z) -> {
+                    String marker = plugin.getBlockMarkerCache().getBlockType(world, x, y, z);
+                    ChunkSnapshot snapshot = snapshots.get(chunkKey(x >> 4, z >> 4));
+                    if (marker == null || snapshot == null) {
+                        return NetworkConnectivityManager.BlockType.UNKNOWN;
+                    }
+                    return NetworkConnectivityManager.resolveBlockType(marker, snapshot.getBlockType(x & 15, y, z & 15));
+                });
+            } catch (Exception e) {
+                failure = e;
+            }
+
+            if (!plugin.isEnabled()) {
+                return;
+            }
+
+            // Hand the result back to the main thread, where it can be registered
+            NetworkInfo network = detected;
+            Exception error = failure;
+            plugin.getServer().getScheduler().runTask(plugin, () -> {
+                try {
+                    if (error != null) {
+                        throw error;
+                    }
+                    result.complete(isStale(network, location, component.length) ? detectNetwork(location) : network);
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        });
+
+        return result;
+    }
+
+    /**
+     * Check if the blocks of a network detected from snapshots changed before it got back to the main thread
+     */
+    private boolean isStale(NetworkInfo network, Location start, int componentSize) {
+        // Any block placed or broken in the connected blocks changes the size of their component
+        if (plugin.getNetworkComponents().getComponentSize(start.getWorld().getName(), BlockPos.pack(start)) != componentSize) {
+            return true;
+        }
+
+        if (network != null) {
+            for (Location location : network.getAllBlocks()) {
+                if (!plugin.getBlockMarkerCache().isMarkedAsMSSBlock(location)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private NetworkInfo detectNetwork(World world, long start, BlockTypeSource blockTypes) {
+        LongHashSet visited = new LongHashSet(256);
+        LongArrayQueue toCheck = new LongArrayQueue();
         Set<Location> networkBlocks = new HashSet<>();
         Set<Location> networkCables = new HashSet<>();
-        Queue<Location> toCheck = new LinkedList<>();
+        Map<Location, String> typesByLocation = new HashMap<>();
 
-        toCheck.add(location);
-        visited.add(location);
+        toCheck.add(start);
+        visited.add(start);
 
         Location storageServer = null;
         Location securityTerminal = null;
@@ -105,51 +228,54 @@ public class NetworkManager {
         Set<Location> terminals = new HashSet<>();
         Set<Location> securityTerminals = new HashSet<>();
 
-        // BFS to find connected network blocks
+        // BFS to find connected network blocks, only blocks that are part of the network get a Location
         while (!toCheck.isEmpty()) {
-            Location current = toCheck.poll();
-            Block block = current.getBlock();
-
-            if (!isNetworkBlockOrCable(block)) continue;
-
-            if (plugin.getCableManager().isCustomNetworkCable(block)) {
-                networkCables.add(current);
-            } else if (isExporter(block)) {
-                // Exporters count as network blocks and extend connectivity
-                networkBlocks.add(current);
-            } else if (isImporter(block)) {
-                // Importers count as network blocks and extend connectivity
-                networkBlocks.add(current);
-            } else {
-                networkBlocks.add(current);
-
-                // Categorize block type
-                if (isStorageServer(block)) {
+            long current = toCheck.poll();
+            NetworkConnectivityManager.BlockType blockType = blockTypes.getBlockType(
+                    BlockPos.getX(current), BlockPos.getY(current), BlockPos.getZ(current));
+
+            if (blockType == NetworkConnectivityManager.BlockType.UNKNOWN) continue;
+
+            Location currentLocation = BlockPos.toLocation(world, current);
+            typesByLocation.put(currentLocation, blockType.name());
+            switch (blockType) {
+                case NETWORK_CABLE -> networkCables.add(currentLocation);
+                // Exporters and importers count as network blocks and extend connectivity
+                case EXPORTER, IMPORTER -> networkBlocks.add(currentLocation);
+                case STORAGE_SERVER -> {
                     if (storageServer != null) {
                         // Multiple storage servers - invalid network
                         return null;
                     }
-                    storageServer = current;
-                } else if (isDriveBay(block)) {
-                    driveBays.add(current);
-                } else if (isMSSTerminal(block)) {
-                    terminals.add(current);
-                } else if (isSecurityTerminal(block)) {
+                    storageServer = currentLocation;
+                    networkBlocks.add(currentLocation);
+                }
+                case DRIVE_BAY -> {
+                    driveBays.add(currentLocation);
+                    networkBlocks.add(currentLocation);
+                }
+                case MSS_TERMINAL -> {
+                    terminals.add(currentLocation);
+                    networkBlocks.add(currentLocation);
+                }
+                case SECURITY_TERMINAL -> {
                     if (securityTerminal != null) {
                         // Multiple security terminals - invalid network
                         return null;
                     }
-                    securityTerminal = current;
-                    securityTerminals.add(current);
                     // Security terminals are part of the network but don't count toward network validity requirements
-                    // They are completely optional and separate from MSS terminals
+                    securityTerminal = currentLocation;
+                    securityTerminals.add(currentLocation);
+                    networkBlocks.add(currentLocation);
+                }
+                default -> {
                 }
             }
 
             // Check adjacent blocks
-            for (Location adjacent : getAdjacentLocations(current)) {
-                if (!visited.contains(adjacent)) {
-                    visited.add(adjacent);
+            for (int face = 0; face < 6; face++) {
+                long adjacent = BlockPos.offset(current, face);
+                if (visited.add(adjacent)) {
                     toCheck.add(adjacent);
                 }
             }
@@ -177,34 +303,64 @@ public class NetworkManager {
         allBlocks.addAll(networkBlocks);
         allBlocks.addAll(networkCables);
 
-        return new NetworkInfo(generateNetworkId(storageServer), storageServer, driveBays, terminals, allBlocks, networkCables, securityTerminals);
+        // Only keep the types of blocks that made it into the network
+        typesByLocation.keySet().retainAll(allBlocks);
+
+        return new NetworkInfo(generateNetworkId(storageServer), storageServer, driveBays, terminals, allBlocks, networkCables,
+                securityTerminals, typesByLocation);
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
     }
 
     /**
      * Get network ID for a location, with special handling for exporters
      */
     public String getNetworkId(Location location) {
-        Block block = location.getBlock();
-
-        // Special handling for exporters - check their stored network ID first
-        if (isExporter(block)) {
-            return getExporterNetworkId(location);
-        }
+        return getNetworkId(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
 
-        // Special handling for security terminals - check their stored network ID first
-        if (isSecurityTerminal(block)) {
-            return getSecurityTerminalNetworkId(location);
-        }
+    /**
+     * Get network ID for a block position, with special handling for exporters and security terminals
+     */
+    public String getNetworkId(World world, int x, int y, int z) {
+        return switch (plugin.getCableManager().getBlockType(world, x, y, z)) {
+            // Special handling for exporters - check their stored network ID first
+            case EXPORTER -> getExporterNetworkId(new Location(world, x, y, z));
+            // Special handling for security terminals - check their stored network ID first
+            case SECURITY_TERMINAL -> getSecurityTerminalNetworkId(new Location(world, x, y, z));
+            case UNKNOWN -> null;
+            // For other blocks, look up the cached topology
+            default -> topology.getNetworkId(world, BlockPos.pack(x, y, z));
+        };
+    }
 
-        // For other blocks, use normal network detection
-        NetworkInfo network = detectNetwork(location);
-        return network != null ? network.getNetworkId() : null;
+    /**
+     * Work out which valid networks remain after a block of a registered network was removed
+     *
+     * @return the networks to register, empty if the network dissolved
+     */
+    public List<NetworkInfo> detectNetworksAfterRemoval(String networkId, Location removed) {
+        return topology.splitAfterRemoval(networkId, removed);
     }
 
     /**
-     * Get the network ID for an exporter from the database
+     * Get the network ID for an exporter, only read from the database on the first lookup
      */
     private String getExporterNetworkId(Location location) {
+        try {
+            String networkId = locationIndex.getExporterNetworkId(location, this::loadExporterNetworkId);
+
+            // Verify the network is still valid
+            return networkId != null && isNetworkValid(networkId) ? networkId : null;
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error getting exporter network ID: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String loadExporterNetworkId(Location location) throws SQLException {
         try (Connection conn = plugin.getDatabaseManager().getConnection();
              PreparedStatement stmt = conn.prepareStatement(
                      "SELECT network_id FROM exporters WHERE world_name = ? AND x = ? AND y = ? AND z = ?")) {
@@ -215,26 +371,27 @@ public class NetworkManager {
             stmt.setInt(4, location.getBlockZ());
 
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    String networkId = rs.getString("network_id");
-
-                    // Verify the network is still valid
-                    if (networkId != null && isNetworkValid(networkId)) {
-                        return networkId;
-                    }
-                }
+                return rs.next() ? rs.getString("network_id") : null;
             }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Error getting exporter network ID: " + e.getMessage());
         }
-
-        return null;
     }
 
     /**
-     * Get the network ID for a security terminal from the database
+     * Get the network ID for a security terminal, only read from the database on the first lookup
      */
     private String getSecurityTerminalNetworkId(Location location) {
+        try {
+            String networkId = locationIndex.getSecurityTerminalNetworkId(location, this::loadSecurityTerminalNetworkId);
+
+            // Only return valid network IDs (not NULL or orphaned)
+            return networkId != null && isNetworkValid(networkId) ? networkId : null;
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error getting security terminal network ID: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String loadSecurityTerminalNetworkId(Location location) throws SQLException {
         try (Connection conn = plugin.getDatabaseManager().getConnection();
              PreparedStatement stmt = conn.prepareStatement(
                      "SELECT network_id FROM security_terminals WHERE world_name = ? AND x = ? AND y = ? AND z = ?")) {
@@ -245,75 +402,105 @@ public class NetworkManager {
             stmt.setInt(4, location.getBlockZ());
 
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    String networkId = rs.getString("network_id");
-                    // Only return valid network IDs (not NULL or orphaned)
-                    if (networkId != null && !networkId.startsWith("orphaned_") && isNetworkValid(networkId)) {
-                        return networkId;
-                    }
-                }
+                return rs.next() ? rs.getString("network_id") : null;
             }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Error getting security terminal network ID: " + e.getMessage());
         }
-
-        return null;
     }
 
-    /**
-     * Check if a block is an exporter
-     */
-    private boolean isExporter(Block block) {
-        if (block.getType() != Material.PLAYER_HEAD && block.getType() != Material.PLAYER_WALL_HEAD) {
-            return false;
+    // Network registration
+    public void registerNetwork(NetworkInfo network, UUID ownerUUID) throws SQLException {
+        // Only the blocks that changed since the last registration are written
+        NetworkInfo previous = topology.getNetwork(network.getNetworkId());
+        Set<Location> addedBlocks = new HashSet<>(network.getAllBlocks());
+        Set<Location> removedBlocks = new HashSet<>();
+        if (previous != null) {
+            addedBlocks.removeAll(previous.getAllBlocks());
+            for (Location location : previous.getAllBlocks()) {
+                if (!network.getAllBlocks().contains(location)) {
+                    removedBlocks.add(location);
+                }
+            }
         }
-        return isMarkedAsCustomBlock(block.getLocation(), "EXPORTER");
-    }
 
-    /**
-     * Check if a block is an importer (for completeness, but importers don't carry network signals)
-     */
-    private boolean isImporter(Block block) {
-        if (block.getType() != Material.PLAYER_HEAD && block.getType() != Material.PLAYER_WALL_HEAD) {
-            return false;
+        // Blocks taken over from other networks mean those networks were merged into this one
+        Set<String> mergedNetworks = new HashSet<>();
+        for (Location location : addedBlocks) {
+            String previousNetworkId = topology.getNetworkId(location);
+            if (previousNetworkId != null && !previousNetworkId.equals(network.getNetworkId())) {
+                mergedNetworks.add(previousNetworkId);
+            }
         }
-        return isMarkedAsCustomBlock(block.getLocation(), "IMPORTER");
-    }
 
-    // Network registration
-    public void registerNetwork(NetworkInfo network, UUID ownerUUID) throws SQLException {
-        plugin.getDatabaseManager().executeTransaction(conn -> {
-            // Insert or update network
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "INSERT OR REPLACE INTO networks (network_id, owner_uuid, last_accessed) VALUES (?, ?, CURRENT_TIMESTAMP)")) {
-                stmt.setString(1, network.getNetworkId());
-                stmt.setString(2, ownerUUID != null ? ownerUUID.toString() : "00000000-0000-0000-0000-000000000000");
-                stmt.executeUpdate();
+        // Blocks that left the network but are still in place were split off
+        boolean split = false;
+        for (Location location : removedBlocks) {
+            if (plugin.getBlockMarkerCache().isMarkedAsMSSBlock(location)) {
+                split = true;
+                break;
             }
+        }
 
-            // Clear existing network blocks
+        String owner = ownerUUID != null ? ownerUUID.toString() : "00000000-0000-0000-0000-000000000000";
+        plugin.getDatabaseManager().executeTransaction(conn -> {
+            // Update or insert network, never replaced so its blocks are kept
             try (PreparedStatement stmt = conn.prepareStatement(
-                    "DELETE FROM network_blocks WHERE network_id = ?")) {
-                stmt.setString(1, network.getNetworkId());
-                stmt.executeUpdate();
+                    "UPDATE networks SET owner_uuid = ?, last_accessed = CURRENT_TIMESTAMP WHERE network_id = ?")) {
+                stmt.setString(1, owner);
+                stmt.setString(2, network.getNetworkId());
+                if (stmt.executeUpdate() == 0) {
+                    try (PreparedStatement insertStmt = conn.prepareStatement(
+                            "INSERT INTO networks (network_id, owner_uuid, last_accessed) VALUES (?, ?, CURRENT_TIMESTAMP)")) {
+                        insertStmt.setString(1, network.getNetworkId());
+                        insertStmt.setString(2, owner);
+                        insertStmt.executeUpdate();
+                    }
+                }
             }
 
-            // Insert network blocks (including cables)
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "INSERT INTO network_blocks (network_id, world_name, x, y, z, block_type) VALUES (?, ?, ?, ?, ?, ?)")) {
-
-                for (Location loc : network.getAllBlocks()) {
+            if (previous == null) {
+                // Not known to the topology, clear whatever blocks are stored for it
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM network_blocks WHERE network_id = ?")) {
                     stmt.setString(1, network.getNetworkId());
-                    stmt.setString(2, loc.getWorld().getName());
-                    stmt.setInt(3, loc.getBlockX());
-                    stmt.setInt(4, loc.getBlockY());
-                    stmt.setInt(5, loc.getBlockZ());
-                    stmt.setString(6, getBlockType(loc.getBlock()));
-                    stmt.addBatch();
+                    stmt.executeUpdate();
+                }
+            } else if (!removedBlocks.isEmpty()) {
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "DELETE FROM network_blocks WHERE network_id = ? AND world_name = ? AND x = ? AND y = ? AND z = ?")) {
+                    for (Location loc : removedBlocks) {
+                        stmt.setString(1, network.getNetworkId());
+                        stmt.setString(2, loc.getWorld().getName());
+                        stmt.setInt(3, loc.getBlockX());
+                        stmt.setInt(4, loc.getBlockY());
+                        stmt.setInt(5, loc.getBlockZ());
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
+                }
+            }
+
+            // Insert new network blocks (including cables), blocks taken over from another network are moved
+            if (!addedBlocks.isEmpty()) {
+                String upsert = plugin.getConfigManager().isMySql() ? "REPLACE INTO" : "INSERT OR REPLACE INTO";
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        upsert + " network_blocks (network_id, world_name, x, y, z, block_type) VALUES (?, ?, ?, ?, ?, ?)")) {
+
+                    for (Location loc : addedBlocks) {
+                        stmt.setString(1, network.getNetworkId());
+                        stmt.setString(2, loc.getWorld().getName());
+                        stmt.setInt(3, loc.getBlockX());
+                        stmt.setInt(4, loc.getBlockY());
+                        stmt.setInt(5, loc.getBlockZ());
+                        stmt.setString(6, network.getBlockType(loc));
+                        stmt.addBatch();
+                    }
+                    stmt.executeBatch();
                 }
-                stmt.executeBatch();
             }
 
+            plugin.debugLog("Registered network " + network.getNetworkId() + ": " + addedBlocks.size() + " blocks added, "
+                    + removedBlocks.size() + " removed");
+
             // Register security terminals in their dedicated table
             if (!network.getSecurityTerminals().isEmpty()) {
                 for (Location securityTerminal : network.getSecurityTerminals()) {
@@ -341,8 +528,25 @@ public class NetworkManager {
             restoreAllDriveBayContents(conn, network.getNetworkId(), network.getDriveBays());
         });
 
+        validNetworks.add(network.getNetworkId());
+        topology.update(network);
+        for (Location securityTerminal : network.getSecurityTerminals()) {
+            locationIndex.invalidate(securityTerminal);
+        }
+
+        // Networks that lost blocks to this one keep what is left, or are gone if that no longer forms a network
+        for (String mergedNetworkId : mergedNetworks) {
+            NetworkInfo remainder = topology.remainderAfterMerge(mergedNetworkId, network);
+            if (remainder != null) {
+                topology.update(remainder);
+                locationIndex.invalidateNetwork(mergedNetworkId);
+            } else {
+                unregisterNetwork(mergedNetworkId);
+            }
+        }
+
         // Notify listeners that network was updated
-        notifyNetworkUpdated(network.getNetworkId());
+        eventBus.postUpdated(network.getNetworkId(), addedBlocks, removedBlocks, mergedNetworks, split);
     }
 
     // Network removal
@@ -386,6 +590,10 @@ public class NetworkManager {
             }
         });
 
+        validNetworks.remove(networkId);
+        topology.remove(networkId);
+        locationIndex.invalidateNetwork(networkId);
+
         // Notify GUI manager about network invalidation
         plugin.getGUIManager().handleNetworkInvalidated(networkId);
 
@@ -396,7 +604,7 @@ public class NetworkManager {
         plugin.debugLog("Unregistered network " + networkId + " and preserved drive bay contents");
 
         // Notify listeners that network was removed
-        notifyNetworkRemoved(networkId);
+        eventBus.postRemoved(networkId);
     }
 
     /**
@@ -472,38 +680,11 @@ public class NetworkManager {
             return false;
         }
 
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM networks WHERE network_id = ?")) {
-            stmt.setString(1, networkId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (SQLException e) {
-            plugin.getLogger().warning("Error checking network validity: " + e.getMessage());
-            return false;
-        }
-    }
-
-    private List<Location> getAdjacentLocations(Location center) {
-        List<Location> adjacent = new ArrayList<>();
-
-        for (int dx = -1; dx <= 1; dx++) {
-            for (int dy = -1; dy <= 1; dy++) {
-                for (int dz = -1; dz <= 1; dz++) {
-                    // Only consider blocks that share a face (not edges or corners)
-                    int nonZero = (dx != 0 ? 1 : 0) + (dy != 0 ? 1 : 0) + (dz != 0 ? 1 : 0);
-                    if (nonZero == 1) {
-                        adjacent.add(center.clone().add(dx, dy, dz));
-                    }
-                }
-            }
-        }
-
-        return adjacent;
+        // Mirrors the networks table, kept up to date by registerNetwork and unregisterNetwork
+        return networkId != null && validNetworks.contains(networkId);
     }
 
-    private String generateNetworkId(Location storageServerLocation) {
+    static String generateNetworkId(Location storageServerLocation) {
         return String.format("%s_%d_%d_%d",
                 storageServerLocation.getWorld().getName(),
                 storageServerLocation.getBlockX(),
@@ -511,59 +692,12 @@ public class NetworkManager {
                 storageServerLocation.getBlockZ());
     }
 
-    private boolean isNetworkBlockOrCable(Block block) {
-        return isNetworkBlock(block) || plugin.getCableManager().isCustomNetworkCable(block) || isExporter(block) || isImporter(block);
-    }
-
-    private boolean isNetworkBlock(Block block) {
-        return isStorageServer(block) || isDriveBay(block) || isMSSTerminal(block) || isSecurityTerminal(block);
-    }
-
-    private boolean isStorageServer(Block block) {
-        return block.getType() == Material.CHISELED_TUFF && isMarkedAsCustomBlock(block.getLocation(), "STORAGE_SERVER");
-    }
-
-    private boolean isDriveBay(Block block) {
-        return block.getType() == Material.CHISELED_TUFF_BRICKS && isMarkedAsCustomBlock(block.getLocation(), "DRIVE_BAY");
-    }
-
-    private boolean isMSSTerminal(Block block) {
-        return block.getType() == Material.CRAFTER && isMarkedAsCustomBlock(block.getLocation(), "MSS_TERMINAL");
-    }
-
-    private boolean isSecurityTerminal(Block block) {
-        return block.getType() == Material.OBSERVER && isMarkedAsCustomBlock(block.getLocation(), "SECURITY_TERMINAL");
-    }
-
-    private boolean isMarkedAsCustomBlock(Location location, String blockType) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ? AND block_type = ?")) {
-
-            stmt.setString(1, location.getWorld().getName());
-            stmt.setInt(2, location.getBlockX());
-            stmt.setInt(3, location.getBlockY());
-            stmt.setInt(4, location.getBlockZ());
-            stmt.setString(5, blockType);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error checking custom block marker: " + e.getMessage());
-            return false;
-        }
-    }
-
-    private String getBlockType(Block block) {
-        if (isStorageServer(block)) return "STORAGE_SERVER";
-        if (isDriveBay(block)) return "DRIVE_BAY";
-        if (isMSSTerminal(block)) return "MSS_TERMINAL";
-        if (isSecurityTerminal(block)) return "SECURITY_TERMINAL";
-        if (plugin.getCableManager().isCustomNetworkCable(block)) return "NETWORK_CABLE";
-        if (isExporter(block)) return "EXPORTER";
-        if (isImporter(block)) return "IMPORTER";
-        return "UNKNOWN";
+    /**
+     * Resolves the MSS block type at a block position, either from the world or from chunk snapshots
+     */
+    @FunctionalInterface
+    private interface BlockTypeSource {
+        NetworkConnectivityManager.BlockType getBlockType(int x, int y, int z);
     }
 
     @FunctionalInterface
@@ -586,5 +720,26 @@ public class NetworkManager {
          * @param networkId The ID of the network that was unregistered
          */
         void onNetworkRemoved(String networkId);
+
+        /**
+         * Called with the coalesced change of one network, override to update incrementally
+         * By default forwards to onNetworkUpdated or onNetworkRemoved
+         */
+        default void onNetworkChanged(NetworkChange change) {
+            if (change.isRemoved()) {
+                onNetworkRemoved(change.getNetworkId());
+            } else {
+                onNetworkUpdated(change.getNetworkId());
+            }
+        }
+
+        /**
+         * Called with every change of one event bus window, override to handle them as one batch
+         */
+        default void onNetworkChanges(List<NetworkChange> changes) {
+            for (NetworkChange change : changes) {
+                onNetworkChanged(change);
+            }
+        }
     }
 }
\ No newline at end of file
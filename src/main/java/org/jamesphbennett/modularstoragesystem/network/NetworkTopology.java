@@ -0,0 +1,287 @@
+package org.jamesphbennett.modularstoragesystem.network;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.utils.BlockPos;
+import org.jamesphbennett.modularstoragesystem.utils.LongArrayQueue;
+import org.jamesphbennett.modularstoragesystem.utils.LongHashSet;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Live model of every registered network, mapping each block location to the network it belongs to
+ * Updated whenever a network is registered or unregistered, so network lookups never need a BFS
+ */
+public class NetworkTopology {
+
+    private final ModularStorageSystem plugin;
+
+    // World name -> packed block position -> network ID for every block of every registered network
+    private final Map<String, Map<Long, String>> blockNetworks = new ConcurrentHashMap<>();
+
+    // Network ID -> the network as it was last registered
+    private final Map<String, NetworkInfo> networks = new ConcurrentHashMap<>();
+
+    public NetworkTopology(ModularStorageSystem plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Get the network a block belongs to
+     *
+     * @return the network ID, or null if the block is not part of a registered network
+     */
+    public String getNetworkId(Location location) {
+        return location.getWorld() != null ? getNetworkId(location.getWorld(), BlockPos.pack(location)) : null;
+    }
+
+    /**
+     * Get the network a packed block position belongs to
+     */
+    public String getNetworkId(World world, long pos) {
+        Map<Long, String> worldBlocks = blockNetworks.get(world.getName());
+        return worldBlocks != null ? worldBlocks.get(pos) : null;
+    }
+
+    /**
+     * Get a registered network
+     *
+     * @return the network, or null if it is not registered
+     */
+    public NetworkInfo getNetwork(String networkId) {
+        return networkId != null ? networks.get(networkId) : null;
+    }
+
+    public int getNetworkCount() {
+        return networks.size();
+    }
+
+    /**
+     * Record a network that was just registered, replacing its previous blocks
+     * Blocks taken over from another network (a merge) are moved to this one, the other network's entry is left
+     * as it was and has to be replaced through {@link #remainderAfterMerge} or removed by the caller.
+     */
+    public void update(NetworkInfo network) {
+        String networkId = network.getNetworkId();
+        NetworkInfo previous = networks.put(networkId, network);
+
+        for (Location location : network.getAllBlocks()) {
+            worldBlocks(location).put(BlockPos.pack(location), networkId);
+        }
+
+        if (previous != null) {
+            for (Location location : previous.getAllBlocks()) {
+                if (!network.getAllBlocks().contains(location)) {
+                    worldBlocks(location).remove(BlockPos.pack(location), networkId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forget a network that was unregistered
+     */
+    public void remove(String networkId) {
+        NetworkInfo previous = networks.remove(networkId);
+        if (previous != null) {
+            for (Location location : previous.getAllBlocks()) {
+                worldBlocks(location).remove(BlockPos.pack(location), networkId);
+            }
+        }
+    }
+
+    /**
+     * Work out what is left of a network after one of its blocks was removed
+     * A block with at most one neighbour in the network can't split it, so only the remaining blocks are re-checked.
+     * Otherwise the network is re-flooded, but only across its own known blocks, never the world.
+     *
+     * @param networkId The network the block belonged to
+     * @param removed The location of the removed block
+     * @return the valid networks that remain, empty if the network dissolved
+     */
+    public List<NetworkInfo> splitAfterRemoval(String networkId, Location removed) {
+        NetworkInfo network = networks.get(networkId);
+        if (network == null) {
+            return List.of();
+        }
+
+        // Blocks that are still in place, exporters and importers are removed without a re-register
+        long removedPos = BlockPos.pack(removed);
+        LongHashSet remaining = new LongHashSet(network.getAllBlocks().size());
+        for (Location location : network.getAllBlocks()) {
+            long pos = BlockPos.pack(location);
+            if (pos != removedPos && plugin.getBlockMarkerCache().isMarkedAsMSSBlock(location)) {
+                remaining.add(pos);
+            }
+        }
+
+        LongArrayQueue neighbours = new LongArrayQueue(8);
+        for (int face = 0; face < 6; face++) {
+            long adjacent = BlockPos.offset(removedPos, face);
+            if (remaining.contains(adjacent)) {
+                neighbours.add(adjacent);
+            }
+        }
+
+        List<NetworkInfo> result = new ArrayList<>();
+        if (neighbours.size() <= 1) {
+            addIfValid(network, remaining, result);
+            return result;
+        }
+
+        LongHashSet visited = new LongHashSet(remaining.size());
+        LongArrayQueue queue = new LongArrayQueue();
+        while (!neighbours.isEmpty()) {
+            long start = neighbours.poll();
+            if (!visited.add(start)) continue;
+
+            LongHashSet component = new LongHashSet();
+            queue.add(start);
+            while (!queue.isEmpty()) {
+                long current = queue.poll();
+                component.add(current);
+                for (int face = 0; face < 6; face++) {
+                    long adjacent = BlockPos.offset(current, face);
+                    if (remaining.contains(adjacent) && visited.add(adjacent)) {
+                        queue.add(adjacent);
+                    }
+                }
+            }
+
+            addIfValid(network, component, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Work out what is left of a network after another network took over some of its blocks
+     * Builds a new entry instead of changing the registered one, which may still be in use elsewhere.
+     *
+     * @param networkId The network that lost blocks
+     * @param into The network that took them over
+     * @return the remaining network, or null if what is left is no longer a valid network with the same ID
+     */
+    public NetworkInfo remainderAfterMerge(String networkId, NetworkInfo into) {
+        NetworkInfo network = networks.get(networkId);
+        if (network == null) {
+            return null;
+        }
+
+        Set<Location> blocks = new HashSet<>(network.getAllBlocks());
+        blocks.removeAll(into.getAllBlocks());
+
+        NetworkInfo remainder = buildNetwork(blocks, typesOf(network));
+        return remainder != null && remainder.getNetworkId().equals(networkId) ? remainder : null;
+    }
+
+    /**
+     * Load the registered networks from the database
+     */
+    public void load() throws SQLException {
+        Map<String, Set<Location>> blocksByNetwork = new HashMap<>();
+        Map<Location, String> blockTypes = new HashMap<>();
+
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT nb.network_id, nb.world_name, nb.x, nb.y, nb.z, nb.block_type FROM network_blocks nb " +
+                             "JOIN networks n ON n.network_id = nb.network_id");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                World world = plugin.getServer().getWorld(rs.getString("world_name"));
+                if (world == null) continue;
+
+                Location location = new Location(world, rs.getInt("x"), rs.getInt("y"), rs.getInt("z"));
+                blocksByNetwork.computeIfAbsent(rs.getString("network_id"), k -> new HashSet<>()).add(location);
+                blockTypes.put(location, rs.getString("block_type"));
+            }
+        }
+
+        for (Map.Entry<String, Set<Location>> entry : blocksByNetwork.entrySet()) {
+            NetworkInfo network = buildNetwork(entry.getValue(), blockTypes::get);
+            if (network != null && network.getNetworkId().equals(entry.getKey())) {
+                update(network);
+            }
+        }
+
+        plugin.debugLog("Loaded topology for " + networks.size() + " networks (" + blockTypes.size() + " blocks)");
+    }
+
+    private void addIfValid(NetworkInfo original, LongHashSet positions, List<NetworkInfo> result) {
+        Set<Location> blocks = new HashSet<>();
+        for (Location location : original.getAllBlocks()) {
+            if (positions.contains(BlockPos.pack(location))) {
+                blocks.add(location);
+            }
+        }
+
+        NetworkInfo network = buildNetwork(blocks, typesOf(original));
+        if (network != null) {
+            result.add(network);
+        }
+    }
+
+    /**
+     * Block types as recorded in a registered network
+     */
+    private static Function<Location, String> typesOf(NetworkInfo original) {
+        return location -> {
+            if (location.equals(original.getStorageServer())) return "STORAGE_SERVER";
+            if (original.getDriveBays().contains(location)) return "DRIVE_BAY";
+            if (original.getTerminals().contains(location)) return "MSS_TERMINAL";
+            if (original.getSecurityTerminals().contains(location)) return "SECURITY_TERMINAL";
+            if (original.getNetworkCables().contains(location)) return "NETWORK_CABLE";
+            String blockType = original.getBlockType(location);
+            return blockType != null ? blockType : "OTHER";
+        };
+    }
+
+    /**
+     * Build a network from a connected set of blocks
+     *
+     * @return the network, or null if the blocks don't form a valid network
+     */
+    private NetworkInfo buildNetwork(Set<Location> blocks, Function<Location, String> typeOf) {
+        Location storageServer = null;
+        Set<Location> driveBays = new HashSet<>();
+        Set<Location> terminals = new HashSet<>();
+        Set<Location> cables = new HashSet<>();
+        Set<Location> securityTerminals = new HashSet<>();
+        Map<Location, String> blockTypes = new HashMap<>();
+
+        for (Location location : blocks) {
+            String blockType = typeOf.apply(location);
+            blockTypes.put(location, blockType);
+            switch (blockType) {
+                case "STORAGE_SERVER" -> {
+                    if (storageServer != null) return null;
+                    storageServer = location;
+                }
+                case "DRIVE_BAY" -> driveBays.add(location);
+                case "MSS_TERMINAL" -> terminals.add(location);
+                case "SECURITY_TERMINAL" -> securityTerminals.add(location);
+                case "NETWORK_CABLE" -> cables.add(location);
+                default -> {
+                }
+            }
+        }
+
+        if (storageServer == null || driveBays.isEmpty() || terminals.isEmpty()) {
+            return null;
+        }
+
+        return new NetworkInfo(NetworkManager.generateNetworkId(storageServer), storageServer, driveBays, terminals,
+                new HashSet<>(blocks), cables, securityTerminals, blockTypes);
+    }
+
+    private Map<Long, String> worldBlocks(Location location) {
+        return blockNetworks.computeIfAbsent(location.getWorld().getName(), k -> new ConcurrentHashMap<>());
+    }
+}
@@ -0,0 +1,85 @@
+package org.jamesphbennett.modularstoragesystem.storage;
+
+import java.util.*;
+
+/**
+ * Free cell capacity of the disks in one network
+ * Disks with free cells are kept ordered by tier capacity, then free cells, so a new cell is placed in O(log disks)
+ * Not thread safe, only used while holding the network lock
+ */
+public class CellAllocator {
+
+    private record DiskCapacity(String diskId, int itemsPerCell, int freeCells, int slotOrder) {
+    }
+
+    // Highest capacity tier first, then the emptiest disk, then drive bay slot order
+    private static final Comparator<DiskCapacity> PLACEMENT_ORDER = Comparator
+            .comparingInt(DiskCapacity::itemsPerCell).reversed()
+            .thenComparing(Comparator.comparingInt(DiskCapacity::freeCells).reversed())
+            .thenComparingInt(DiskCapacity::slotOrder);
+
+    private final List<String> diskIds;
+    private final Map<String, DiskCapacity> capacities = new HashMap<>();
+    private final TreeSet<DiskCapacity> disksWithFreeCells = new TreeSet<>(PLACEMENT_ORDER);
+
+    public CellAllocator(List<String> diskIds) {
+        this.diskIds = List.copyOf(diskIds);
+    }
+
+    /**
+     * Check if this allocator was built for exactly these disks
+     */
+    public boolean covers(List<String> diskIds) {
+        return this.diskIds.equals(diskIds);
+    }
+
+    public boolean contains(String diskId) {
+        return capacities.containsKey(diskId);
+    }
+
+    /**
+     * Set the capacity of a disk
+     */
+    public void setCapacity(String diskId, int itemsPerCell, int freeCells) {
+        DiskCapacity previous = capacities.get(diskId);
+        if (previous != null) {
+            disksWithFreeCells.remove(previous);
+        }
+
+        int slotOrder = previous != null ? previous.slotOrder() : diskIds.indexOf(diskId);
+        DiskCapacity capacity = new DiskCapacity(diskId, itemsPerCell, Math.max(0, freeCells), slotOrder);
+        capacities.put(diskId, capacity);
+        if (capacity.freeCells() > 0) {
+            disksWithFreeCells.add(capacity);
+        }
+    }
+
+    /**
+     * Record cells created (negative) or removed (positive) on a disk
+     */
+    public void adjustFreeCells(String diskId, int delta) {
+        DiskCapacity capacity = capacities.get(diskId);
+        if (capacity != null) {
+            setCapacity(diskId, capacity.itemsPerCell(), capacity.freeCells() + delta);
+        }
+    }
+
+    /**
+     * Get the disk the next new cell should go to
+     *
+     * @return the disk ID, or null if every disk is full
+     */
+    public String nextDisk() {
+        return disksWithFreeCells.isEmpty() ? null : disksWithFreeCells.first().diskId();
+    }
+
+    public int getItemsPerCell(String diskId) {
+        DiskCapacity capacity = capacities.get(diskId);
+        return capacity != null ? capacity.itemsPerCell() : 0;
+    }
+
+    public int getFreeCells(String diskId) {
+        DiskCapacity capacity = capacities.get(diskId);
+        return capacity != null ? capacity.freeCells() : 0;
+    }
+}
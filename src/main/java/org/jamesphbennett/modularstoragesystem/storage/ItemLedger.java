@@ -0,0 +1,568 @@
+package org.jamesphbennett.modularstoragesystem.storage;
+
+import org.bukkit.scheduler.BukkitTask;
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-back ledger of storage cell quantities, grouped by disk and item hash.
+ * Cells are loaded from storage_items the first time a disk is used and are served
+ * from memory afterwards. Changes are flushed to the database asynchronously.
+ */
+public class ItemLedger {
+
+    private final ModularStorageSystem plugin;
+    private final ItemPrototypeCache prototypeCache;
+
+    // Loaded disks by disk ID
+    private final Map<String, DiskCells> disks = new ConcurrentHashMap<>();
+
+    // Serializes flushes so writes reach the database in the order they were made
+    private final Object flushLock = new Object();
+
+    // Cell IDs are assigned here so new cells can be addressed before they are written
+    private final AtomicLong nextCellId;
+
+    private BukkitTask flushTask;
+
+    public ItemLedger(ModularStorageSystem plugin, ItemPrototypeCache prototypeCache) throws SQLException {
+        this.plugin = plugin;
+        this.prototypeCache = prototypeCache;
+        this.nextCellId = new AtomicLong(loadHighestCellId());
+        startFlushTask();
+    }
+
+    /**
+     * A single storage cell (one storage_items row)
+     */
+    public static final class Cell {
+        private final long id;
+        private final String diskId;
+        private final String itemHash;
+        private final int maxStackSize;
+        private int quantity;
+        private boolean persisted;
+        private boolean insertPending;
+
+        private Cell(long id, String diskId, String itemHash, int quantity, int maxStackSize, boolean persisted) {
+            this.id = id;
+            this.diskId = diskId;
+            this.itemHash = itemHash;
+            this.quantity = quantity;
+            this.maxStackSize = maxStackSize;
+            this.persisted = persisted;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getDiskId() {
+            return diskId;
+        }
+
+        public String getItemHash() {
+            return itemHash;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+    }
+
+    /**
+     * All cells of one disk plus the changes not yet written to the database
+     */
+    private static final class DiskCells {
+        private final String diskId;
+        private final Map<String, List<Cell>> cellsByHash = new HashMap<>();
+        private final Map<Long, Cell> cellsById = new HashMap<>();
+        // Total quantity per item hash, kept in step with the cells
+        private final Map<String, Integer> totalsByHash = new HashMap<>();
+        private final Set<Long> dirtyCells = new LinkedHashSet<>();
+        private final Set<Long> removedCells = new LinkedHashSet<>();
+        // Cells created minus cells removed since the last flush
+        private int cellDelta;
+
+        private DiskCells(String diskId) {
+            this.diskId = diskId;
+        }
+
+        private void add(Cell cell) {
+            cellsByHash.computeIfAbsent(cell.itemHash, k -> new ArrayList<>()).add(cell);
+            cellsById.put(cell.id, cell);
+            changeTotal(cell.itemHash, cell.quantity);
+        }
+
+        private void remove(Cell cell) {
+            List<Cell> cells = cellsByHash.get(cell.itemHash);
+            if (cells != null) {
+                cells.remove(cell);
+                if (cells.isEmpty()) {
+                    cellsByHash.remove(cell.itemHash);
+                }
+            }
+            cellsById.remove(cell.id);
+            changeTotal(cell.itemHash, -cell.quantity);
+            dirtyCells.remove(cell.id);
+
+            // Only rows that exist (or are being written) need a DELETE
+            if (cell.persisted || cell.insertPending) {
+                removedCells.add(cell.id);
+            }
+            cellDelta--;
+        }
+
+        private void changeTotal(String itemHash, int delta) {
+            if (delta != 0) {
+                totalsByHash.merge(itemHash, delta, (a, b) -> a + b == 0 ? null : a + b);
+            }
+        }
+
+        private boolean hasChanges() {
+            return !dirtyCells.isEmpty() || !removedCells.isEmpty() || cellDelta != 0;
+        }
+    }
+
+    /**
+     * Snapshot of the pending changes of one disk, taken at the start of a flush
+     */
+    private record DiskFlush(DiskCells disk, List<CellWrite> inserts, List<CellWrite> updates,
+                             List<Long> deletes, int cellDelta) {
+    }
+
+    /**
+     * Total quantity of one item type on a disk
+     */
+    public record ItemTotal(String itemHash, int quantity) {
+    }
+
+    private record CellWrite(long id, String itemHash, int quantity, int maxStackSize) {
+    }
+
+    /**
+     * Load the cells of any of the given disks that are not in memory yet
+     */
+    public void loadDisks(Connection conn, Collection<String> diskIds) throws SQLException {
+        List<String> missing = new ArrayList<>();
+        for (String diskId : diskIds) {
+            if (!disks.containsKey(diskId)) {
+                missing.add(diskId);
+            }
+        }
+
+        if (missing.isEmpty()) {
+            return;
+        }
+
+        Map<String, DiskCells> loaded = new HashMap<>();
+        for (String diskId : missing) {
+            loaded.put(diskId, new DiskCells(diskId));
+        }
+
+        StringBuilder query = new StringBuilder(
+                "SELECT id, disk_id, item_hash, item_data, item_bytes, quantity, max_stack_size FROM storage_items WHERE disk_id IN (");
+        for (int i = 0; i < missing.size(); i++) {
+            if (i > 0) query.append(", ");
+            query.append("?");
+        }
+        query.append(")");
+
+        try (PreparedStatement stmt = conn.prepareStatement(query.toString())) {
+            for (int i = 0; i < missing.size(); i++) {
+                stmt.setString(i + 1, missing.get(i));
+            }
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    String diskId = rs.getString("disk_id");
+                    String itemHash = rs.getString("item_hash");
+
+                    // Rows not yet moved to item_prototypes still carry the item inline
+                    prototypeCache.registerBytes(itemHash, StorageManager.readItemBytes(rs));
+
+                    Cell cell = new Cell(
+                            rs.getLong("id"),
+                            diskId,
+                            itemHash,
+                            rs.getInt("quantity"),
+                            rs.getInt("max_stack_size"),
+                            true
+                    );
+                    loaded.get(diskId).add(cell);
+                }
+            }
+        }
+
+        for (DiskCells disk : loaded.values()) {
+            disks.putIfAbsent(disk.diskId, disk);
+        }
+
+        plugin.debugLog("Loaded " + missing.size() + " disks into the storage ledger");
+    }
+
+    /**
+     * Check if a disk is currently held in memory
+     */
+    public boolean isLoaded(String diskId) {
+        return disks.containsKey(diskId);
+    }
+
+    /**
+     * Get the cells of a disk holding a specific item type
+     */
+    public List<Cell> getCells(String diskId, String itemHash) {
+        DiskCells disk = disks.get(diskId);
+        if (disk == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (disk) {
+            List<Cell> cells = disk.cellsByHash.get(itemHash);
+            return cells != null ? new ArrayList<>(cells) : Collections.emptyList();
+        }
+    }
+
+    /**
+     * Get the total quantity of an item type on a disk
+     */
+    public int getItemTotal(String diskId, String itemHash) {
+        DiskCells disk = disks.get(diskId);
+        if (disk == null) {
+            return 0;
+        }
+
+        synchronized (disk) {
+            return disk.totalsByHash.getOrDefault(itemHash, 0);
+        }
+    }
+
+    /**
+     * Get the total quantity of every item type on a disk
+     */
+    public List<ItemTotal> getItemTotals(String diskId) {
+        DiskCells disk = disks.get(diskId);
+        if (disk == null) {
+            return Collections.emptyList();
+        }
+
+        synchronized (disk) {
+            List<ItemTotal> totals = new ArrayList<>(disk.totalsByHash.size());
+            for (Map.Entry<String, Integer> entry : disk.totalsByHash.entrySet()) {
+                totals.add(new ItemTotal(entry.getKey(), entry.getValue()));
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Get the number of cells in use on a disk, or -1 if the disk is not loaded
+     */
+    public int getUsedCells(String diskId) {
+        DiskCells disk = disks.get(diskId);
+        if (disk == null) {
+            return -1;
+        }
+
+        synchronized (disk) {
+            return disk.cellsById.size();
+        }
+    }
+
+    /**
+     * Create a new cell on a loaded disk
+     */
+    public Cell createCell(String diskId, String itemHash, int quantity, int maxStackSize) {
+        DiskCells disk = disks.get(diskId);
+        if (disk == null) {
+            throw new IllegalStateException("Disk " + diskId + " is not loaded in the storage ledger");
+        }
+
+        Cell cell = new Cell(nextCellId.incrementAndGet(), diskId, itemHash, quantity, maxStackSize, false);
+        synchronized (disk) {
+            disk.add(cell);
+            disk.dirtyCells.add(cell.id);
+            disk.cellDelta++;
+        }
+        return cell;
+    }
+
+    /**
+     * Change the quantity of a cell. A cell that reaches zero is removed from its disk.
+     */
+    public void adjustCell(Cell cell, int delta) {
+        DiskCells disk = disks.get(cell.diskId);
+        if (disk == null) {
+            throw new IllegalStateException("Disk " + cell.diskId + " is not loaded in the storage ledger");
+        }
+
+        synchronized (disk) {
+            int newQuantity = Math.max(0, cell.quantity + delta);
+            disk.changeTotal(cell.itemHash, newQuantity - cell.quantity);
+            cell.quantity = newQuantity;
+            if (newQuantity == 0) {
+                disk.remove(cell);
+            } else {
+                disk.dirtyCells.add(cell.id);
+            }
+        }
+    }
+
+    /**
+     * Start the periodic background flush
+     */
+    private void startFlushTask() {
+        long interval = Math.max(1, plugin.getConfigManager().getStorageFlushInterval());
+        flushTask = plugin.getServer().getScheduler().runTaskTimerAsynchronously(plugin, this::flush, interval, interval);
+    }
+
+    /**
+     * Write all pending changes to the database in one transaction
+     */
+    public void flush() {
+        flushDisks(new ArrayList<>(disks.values()));
+    }
+
+    /**
+     * Flush pending changes, then reset used_cells to the actual row count on any disk that has drifted
+     *
+     * @return the number of disks that were corrected
+     */
+    public int reconcileCellCounts() throws SQLException {
+        synchronized (flushLock) {
+            flush();
+
+            try (Connection conn = plugin.getDatabaseManager().getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(
+                         "UPDATE storage_disks SET used_cells = (SELECT COUNT(*) FROM storage_items WHERE storage_items.disk_id = storage_disks.disk_id), " +
+                                 "updated_at = CURRENT_TIMESTAMP " +
+                                 "WHERE used_cells <> (SELECT COUNT(*) FROM storage_items WHERE storage_items.disk_id = storage_disks.disk_id)")) {
+                return stmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Write the pending changes of a single disk, e.g. before it leaves a drive bay
+     */
+    public void flushDisk(String diskId) {
+        DiskCells disk = disks.get(diskId);
+        if (disk != null) {
+            flushDisks(Collections.singletonList(disk));
+        }
+    }
+
+    /**
+     * Flush and drop a disk from memory. The disk stays loaded if its changes could not be written.
+     */
+    public void evictDisk(String diskId) {
+        DiskCells disk = disks.get(diskId);
+        if (disk == null) {
+            return;
+        }
+
+        flushDisks(Collections.singletonList(disk));
+
+        synchronized (disk) {
+            if (!disk.hasChanges()) {
+                disks.remove(diskId, disk);
+            }
+        }
+    }
+
+    private void flushDisks(List<DiskCells> candidates) {
+        synchronized (flushLock) {
+            List<DiskFlush> pending = new ArrayList<>();
+            for (DiskCells disk : candidates) {
+                DiskFlush diskFlush = drainChanges(disk);
+                if (diskFlush != null) {
+                    pending.add(diskFlush);
+                }
+            }
+
+            // Drained after the cells, so every cell in this flush has its prototype written with it
+            Map<String, byte[]> prototypes = prototypeCache.drainPending();
+
+            if (pending.isEmpty() && prototypes.isEmpty()) {
+                return;
+            }
+
+            try {
+                plugin.getDatabaseManager().executeTransaction(conn -> {
+                    prototypeCache.writePrototypes(conn, prototypes);
+                    writeChanges(conn, pending);
+                });
+            } catch (SQLException e) {
+                plugin.getLogger().severe("Failed to flush storage ledger, changes will be retried: " + e.getMessage());
+                prototypeCache.restorePending(prototypes);
+                for (DiskFlush diskFlush : pending) {
+                    restoreChanges(diskFlush);
+                }
+                return;
+            }
+
+            prototypeCache.markPersisted(prototypes.keySet());
+            for (DiskFlush diskFlush : pending) {
+                markWritten(diskFlush);
+            }
+
+            plugin.debugLog("Flushed storage ledger changes for " + pending.size() + " disks");
+        }
+    }
+
+    private DiskFlush drainChanges(DiskCells disk) {
+        synchronized (disk) {
+            if (!disk.hasChanges()) {
+                return null;
+            }
+
+            List<CellWrite> inserts = new ArrayList<>();
+            List<CellWrite> updates = new ArrayList<>();
+            for (Long cellId : disk.dirtyCells) {
+                Cell cell = disk.cellsById.get(cellId);
+                if (cell == null) {
+                    continue;
+                }
+
+                CellWrite write = new CellWrite(cell.id, cell.itemHash, cell.quantity, cell.maxStackSize);
+                if (cell.persisted) {
+                    updates.add(write);
+                } else {
+                    cell.insertPending = true;
+                    inserts.add(write);
+                }
+            }
+
+            List<Long> deletes = new ArrayList<>(disk.removedCells);
+            int cellDelta = disk.cellDelta;
+
+            disk.dirtyCells.clear();
+            disk.removedCells.clear();
+            disk.cellDelta = 0;
+
+            return new DiskFlush(disk, inserts, updates, deletes, cellDelta);
+        }
+    }
+
+    private void writeChanges(Connection conn, List<DiskFlush> pending) throws SQLException {
+        try (PreparedStatement insertStmt = conn.prepareStatement(
+                "INSERT INTO storage_items (id, disk_id, item_hash, item_data, quantity, max_stack_size) VALUES (?, ?, ?, '', ?, ?)");
+             PreparedStatement updateStmt = conn.prepareStatement(
+                     "UPDATE storage_items SET quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?");
+             PreparedStatement deleteStmt = conn.prepareStatement(
+                     "DELETE FROM storage_items WHERE id = ?");
+             PreparedStatement cellCountStmt = conn.prepareStatement(
+                     "UPDATE storage_disks SET used_cells = used_cells + ?, updated_at = CURRENT_TIMESTAMP WHERE disk_id = ?")) {
+
+            // Each kind of change is sent as a single batch regardless of how many cells changed
+            for (DiskFlush diskFlush : pending) {
+                for (CellWrite write : diskFlush.inserts()) {
+                    insertStmt.setLong(1, write.id());
+                    insertStmt.setString(2, diskFlush.disk().diskId);
+                    insertStmt.setString(3, write.itemHash());
+                    insertStmt.setInt(4, write.quantity());
+                    insertStmt.setInt(5, write.maxStackSize());
+                    insertStmt.addBatch();
+                }
+
+                for (CellWrite write : diskFlush.updates()) {
+                    updateStmt.setInt(1, write.quantity());
+                    updateStmt.setLong(2, write.id());
+                    updateStmt.addBatch();
+                }
+
+                for (Long cellId : diskFlush.deletes()) {
+                    deleteStmt.setLong(1, cellId);
+                    deleteStmt.addBatch();
+                }
+
+                // Disks whose cell count did not change are left alone
+                if (diskFlush.cellDelta() != 0) {
+                    cellCountStmt.setInt(1, diskFlush.cellDelta());
+                    cellCountStmt.setString(2, diskFlush.disk().diskId);
+                    cellCountStmt.addBatch();
+                }
+            }
+
+            // Deletes first so a disk never briefly holds more rows than cells
+            deleteStmt.executeBatch();
+            updateStmt.executeBatch();
+            insertStmt.executeBatch();
+            cellCountStmt.executeBatch();
+        }
+    }
+
+    private void markWritten(DiskFlush diskFlush) {
+        DiskCells disk = diskFlush.disk();
+        synchronized (disk) {
+            for (CellWrite write : diskFlush.inserts()) {
+                Cell cell = disk.cellsById.get(write.id());
+                if (cell != null) {
+                    cell.persisted = true;
+                    cell.insertPending = false;
+                }
+            }
+        }
+    }
+
+    private void restoreChanges(DiskFlush diskFlush) {
+        DiskCells disk = diskFlush.disk();
+        synchronized (disk) {
+            for (CellWrite write : diskFlush.inserts()) {
+                Cell cell = disk.cellsById.get(write.id());
+                if (cell != null) {
+                    cell.insertPending = false;
+                    disk.dirtyCells.add(write.id());
+                }
+            }
+            for (CellWrite write : diskFlush.updates()) {
+                if (disk.cellsById.containsKey(write.id())) {
+                    disk.dirtyCells.add(write.id());
+                }
+            }
+            disk.removedCells.addAll(diskFlush.deletes());
+            disk.cellDelta += diskFlush.cellDelta();
+        }
+    }
+
+    private long loadHighestCellId() throws SQLException {
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT MAX(id) FROM storage_items");
+             ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Stop the background flush and write everything that is still pending
+     */
+    public void shutdown() {
+        if (flushTask != null) {
+            flushTask.cancel();
+            flushTask = null;
+        }
+
+        flush();
+
+        int unflushed = 0;
+        for (DiskCells disk : disks.values()) {
+            synchronized (disk) {
+                if (disk.hasChanges()) {
+                    unflushed++;
+                }
+            }
+        }
+        if (unflushed > 0) {
+            plugin.getLogger().severe("Storage ledger shut down with unsaved changes on " + unflushed + " disks");
+        } else {
+            plugin.getLogger().info("Storage ledger flushed successfully");
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package org.jamesphbennett.modularstoragesystem.storage;
+
+import org.bukkit.inventory.ItemStack;
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Dictionary of item prototypes, one serialized single-item template per item hash.
+ * Storage cells only reference the hash, decoded templates are kept in a bounded LRU cache.
+ * Cached templates are never handed out directly, callers always get a clone.
+ */
+public class ItemPrototypeCache {
+
+    private final ModularStorageSystem plugin;
+
+    // Decoded single-item templates by item hash, least recently used first
+    private final LinkedHashMap<String, ItemStack> prototypes = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ItemStack> eldest) {
+            return size() > plugin.getConfigManager().getItemPrototypeCacheSize();
+        }
+    };
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // Hashes that already have an item_prototypes row
+    private final Set<String> persistedHashes = ConcurrentHashMap.newKeySet();
+
+    // Serialized prototypes waiting to be written with the next ledger flush
+    private final Map<String, byte[]> pendingPrototypes = new ConcurrentHashMap<>();
+
+    public ItemPrototypeCache(ModularStorageSystem plugin) throws SQLException {
+        this.plugin = plugin;
+        loadPersistedHashes();
+    }
+
+    /**
+     * Make sure a prototype exists for an item that is about to be stored
+     */
+    public void register(String itemHash, ItemStack item) {
+        if (persistedHashes.contains(itemHash) || pendingPrototypes.containsKey(itemHash)) {
+            return;
+        }
+
+        ItemStack template = item.clone();
+        template.setAmount(1);
+        synchronized (prototypes) {
+            prototypes.putIfAbsent(itemHash, template.clone());
+        }
+
+        byte[] bytes = plugin.getStorageManager().serializeItemStack(template);
+        if (bytes.length > 0) {
+            pendingPrototypes.putIfAbsent(itemHash, bytes);
+        }
+    }
+
+    /**
+     * Register serialized item data found inline on a storage row that has not been converted yet
+     */
+    public void registerBytes(String itemHash, byte[] bytes) {
+        if (bytes == null || persistedHashes.contains(itemHash) || pendingPrototypes.containsKey(itemHash)) {
+            return;
+        }
+        pendingPrototypes.putIfAbsent(itemHash, bytes);
+    }
+
+    /**
+     * Get a single-item copy of the prototype for an item hash
+     *
+     * @return the prototype, or null if the hash is unknown or its data is corrupt
+     */
+    public ItemStack get(String itemHash) {
+        ItemStack prototype;
+        synchronized (prototypes) {
+            prototype = prototypes.get(itemHash);
+        }
+
+        if (prototype != null) {
+            hits.incrementAndGet();
+            return prototype.clone();
+        }
+
+        misses.incrementAndGet();
+
+        // Decode outside the lock, a concurrent miss on the same hash only costs a second decode
+        byte[] bytes = pendingPrototypes.get(itemHash);
+        if (bytes == null) {
+            bytes = loadPrototype(itemHash);
+        }
+
+        prototype = plugin.getStorageManager().deserializeItemStack(bytes);
+        if (prototype == null) {
+            return null;
+        }
+
+        prototype.setAmount(1);
+        synchronized (prototypes) {
+            prototypes.putIfAbsent(itemHash, prototype);
+        }
+        return prototype.clone();
+    }
+
+    /**
+     * Get the number of lookups served from the decoded cache
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of lookups that had to decode a prototype
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Get the number of decoded prototypes currently cached
+     */
+    public int getCachedCount() {
+        synchronized (prototypes) {
+            return prototypes.size();
+        }
+    }
+
+    /**
+     * Take all prototypes that still need to be written
+     */
+    Map<String, byte[]> drainPending() {
+        Map<String, byte[]> drained = new HashMap<>();
+        for (Map.Entry<String, byte[]> entry : pendingPrototypes.entrySet()) {
+            if (pendingPrototypes.remove(entry.getKey(), entry.getValue())) {
+                drained.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Put back prototypes whose write failed so the next flush retries them
+     */
+    void restorePending(Map<String, byte[]> drained) {
+        for (Map.Entry<String, byte[]> entry : drained.entrySet()) {
+            pendingPrototypes.putIfAbsent(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Record prototypes that were written successfully
+     */
+    void markPersisted(Collection<String> itemHashes) {
+        persistedHashes.addAll(itemHashes);
+    }
+
+    /**
+     * Insert prototypes, skipping hashes that already have a row
+     */
+    void writePrototypes(Connection conn, Map<String, byte[]> drained) throws SQLException {
+        if (drained.isEmpty()) {
+            return;
+        }
+
+        String insertIgnore = plugin.getConfigManager().isMySql() ? "INSERT IGNORE" : "INSERT OR IGNORE";
+        try (PreparedStatement stmt = conn.prepareStatement(
+                insertIgnore + " INTO item_prototypes (item_hash, item_bytes) VALUES (?, ?)")) {
+            for (Map.Entry<String, byte[]> entry : drained.entrySet()) {
+                stmt.setString(1, entry.getKey());
+                stmt.setBytes(2, entry.getValue());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    private byte[] loadPrototype(String itemHash) {
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT item_bytes FROM item_prototypes WHERE item_hash = ?")) {
+            stmt.setString(1, itemHash);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getBytes("item_bytes") : null;
+            }
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error loading item prototype " + itemHash + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void loadPersistedHashes() throws SQLException {
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT item_hash FROM item_prototypes");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                persistedHashes.add(rs.getString("item_hash"));
+            }
+        }
+        plugin.debugLog("Loaded " + persistedHashes.size() + " item prototype hashes");
+    }
+}
@@ -0,0 +1,47 @@
+package org.jamesphbennett.modularstoragesystem.storage;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Total quantity per item type across the disks of one network, so availability checks are a single lookup
+ * Built from the ledger and kept in step by the storage operations, which change it while holding the network lock.
+ * Reads may run concurrently with those changes.
+ */
+public class NetworkItemIndex {
+
+    private final Set<String> diskIds;
+    private final Map<String, Integer> quantities = new ConcurrentHashMap<>();
+
+    public NetworkItemIndex(Set<String> diskIds) {
+        this.diskIds = diskIds;
+    }
+
+    /**
+     * Check if this index was built for exactly these disks
+     */
+    public boolean covers(Set<String> diskIds) {
+        return this.diskIds == diskIds || this.diskIds.equals(diskIds);
+    }
+
+    public boolean contains(String diskId) {
+        return diskIds.contains(diskId);
+    }
+
+    public int getQuantity(String itemHash) {
+        return quantities.getOrDefault(itemHash, 0);
+    }
+
+    /**
+     * Record items added to (positive) or taken from (negative) a disk, ignored for disks outside the index
+     */
+    public void adjust(String diskId, String itemHash, int delta) {
+        if (delta != 0 && diskIds.contains(diskId)) {
+            quantities.compute(itemHash, (hash, quantity) -> {
+                int updated = (quantity != null ? quantity : 0) + delta;
+                return updated > 0 ? updated : null;
+            });
+        }
+    }
+}
@@ -1,27 +1,40 @@
 package org.jamesphbennett.modularstoragesystem.storage;
 
-import org.bukkit.Location;
 import org.bukkit.inventory.ItemStack;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
-import org.jamesphbennett.modularstoragesystem.database.DatabaseManager;
 import org.jamesphbennett.modularstoragesystem.managers.ItemManager;
-import org.jamesphbennett.modularstoragesystem.network.NetworkInfo;
-import org.jetbrains.annotations.NotNull;
+import org.jamesphbennett.modularstoragesystem.utils.DiskMetadataCache;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class StorageManager {
 
     private final ModularStorageSystem plugin;
     private final ItemManager itemManager;
+    private final ItemPrototypeCache itemPrototypeCache;
+    private final ItemLedger itemLedger;
+    private final StorageTransfers transfers;
 
-    public StorageManager(ModularStorageSystem plugin) {
+    // Free cell capacity per network, rebuilt when the network's disks change
+    private final Map<String, CellAllocator> cellAllocators = new ConcurrentHashMap<>();
+
+    // Item quantities per network, rebuilt when the network's connected disks change
+    private final Map<String, NetworkItemIndex> itemIndexes = new ConcurrentHashMap<>();
+
+    // Disk ID -> network whose lock guards the disk's ledger entries, so a disk is only released holding that lock
+    private final Map<String, String> diskNetworks = new ConcurrentHashMap<>();
+
+    public StorageManager(ModularStorageSystem plugin) throws SQLException {
         this.plugin = plugin;
         this.itemManager = plugin.getItemManager();
+        this.itemPrototypeCache = new ItemPrototypeCache(plugin);
+        this.itemLedger = new ItemLedger(plugin, itemPrototypeCache);
+        this.transfers = new StorageTransfers(plugin, plugin.getConfigManager().getStorageTransferThreads());
     }
 
     /**
@@ -36,57 +49,65 @@ public class StorageManager {
 
             plugin.debugLog("Starting storage operation for " + items.size() + " item stacks in network " + networkId);
 
-            try {
-                DatabaseManager.DatabaseTransaction transaction = (Connection conn) -> {
-                    // Get all storage disks in the network
-                    List<String> diskIds = getNetworkDiskIds(conn, networkId);
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                // Get all storage disks in the network
+                List<String> diskIds = plugin.getDriveBayDiskCache().getOrderedNetworkDiskIds(networkId);
+                trackDisks(networkId, diskIds);
 
-                    plugin.debugLog("Found " + diskIds.size() + " storage disks in network " + networkId);
+                plugin.debugLog("Found " + diskIds.size() + " storage disks in network " + networkId);
 
-                    if (diskIds.isEmpty()) {
-                        plugin.debugLog("debug.storage.no-disks", "network", networkId);
-                        remainders.addAll(items);
-                        return;
-                    }
+                if (diskIds.isEmpty()) {
+                    plugin.debugLog("debug.storage.no-disks", "network", networkId);
+                    remainders.addAll(items);
+                    return remainders;
+                }
 
-                    // Log disk capacities
+                // Cell quantities and disk metadata are served from memory, only disks seen for the first time hit the database
+                itemLedger.loadDisks(conn, diskIds);
+                for (String diskId : diskIds) {
+                    plugin.getDiskMetadataCache().get(conn, diskId);
+                }
+
+                CellAllocator allocator = getCellAllocator(networkId, diskIds);
+
+                // Log disk capacities
+                if (plugin.getConfigManager().isDebugMode()) {
                     for (String diskId : diskIds) {
-                        int availableCells = getAvailableCells(conn, diskId);
-                        int maxCells = getMaxCells(conn, diskId);
-                        plugin.debugLog("Disk " + diskId + ": " + availableCells + "/" + maxCells + " cells available");
+                        plugin.debugLog("Disk " + diskId + ": " + allocator.getFreeCells(diskId) + "/" + getMaxCells(diskId) + " cells available");
                     }
+                }
 
-                    for (ItemStack item : items) {
-                        if (itemManager.isItemBlacklisted(item)) {
-                            plugin.debugLog("debug.storage.item-blacklisted", "item", item.getType());
-                            remainders.add(item);
-                            continue;
-                        }
-
-                        plugin.debugLog("debug.storage.processing", "amount", item.getAmount(), "item", item.getType());
-                        ItemStack remainder = storeItemInNetwork(conn, networkId, diskIds, item);
-                        if (remainder != null && remainder.getAmount() > 0) {
-                            plugin.debugLog("debug.storage.operation-complete", "remaining", remainder.getAmount() + " " + remainder.getType() + " could not be stored");
-                            remainders.add(remainder);
-                        }
+                // Group incoming stacks by item type so each type is hashed, serialized and placed once
+                Map<String, StoreGroup> groups = new LinkedHashMap<>();
+                for (ItemStack item : items) {
+                    if (itemManager.isItemBlacklisted(item)) {
+                        plugin.debugLog("debug.storage.item-blacklisted", "item", item.getType());
+                        remainders.add(item);
+                        continue;
                     }
 
-                    // Update disk cell counts
-                    updateDiskCellCounts(conn, diskIds);
+                    String itemHash = itemManager.generateItemHash(item);
+                    groups.computeIfAbsent(itemHash, hash -> new StoreGroup(hash, item)).add(item);
+                }
 
-                    // Log final disk states
-                    for (String diskId : diskIds) {
-                        int availableCells = getAvailableCells(conn, diskId);
-                        int maxCells = getMaxCells(conn, diskId);
-                        plugin.debugLog("Final disk " + diskId + ": " + availableCells + "/" + maxCells + " cells available");
+                for (StoreGroup group : groups.values()) {
+                    plugin.debugLog("debug.storage.processing", "amount", group.totalAmount, "item", group.template.getType());
+                    int remaining = storeItemInNetwork(conn, networkId, diskIds, allocator, group);
+                    if (remaining > 0) {
+                        plugin.debugLog("debug.storage.operation-complete", "remaining", remaining + " " + group.template.getType() + " could not be stored");
+                        remainders.addAll(group.getRemainders(remaining));
                     }
-                };
+                }
 
-                plugin.getDatabaseManager().executeTransaction(transaction);
-                plugin.debugLog("Storage transaction completed successfully");
+                // Log final disk states
+                if (plugin.getConfigManager().isDebugMode()) {
+                    for (String diskId : diskIds) {
+                        plugin.debugLog("Final disk " + diskId + ": " + allocator.getFreeCells(diskId) + "/" + getMaxCells(diskId) + " cells available");
+                    }
+                }
 
             } catch (SQLException e) {
-                plugin.getLogger().severe("Storage transaction failed: " + e.getMessage());
+                plugin.getLogger().severe("Storage operation failed: " + e.getMessage());
                 plugin.getLogger().severe("Stack trace: " + java.util.Arrays.toString(e.getStackTrace()));
                 throw new RuntimeException("Storage operation failed: " + e.getMessage(), e);
             }
@@ -105,89 +126,119 @@ public class StorageManager {
      */
     public ItemStack retrieveItems(String networkId, String itemHash, int amount) throws Exception {
         return plugin.getNetworkManager().withNetworkLock(networkId, () -> {
-            ItemStack[] result = new ItemStack[1];
+            List<String> diskIds = loadNetworkDisks(networkId);
+            return retrieveFromDisks(networkId, diskIds, itemHash, amount);
+        });
+    }
 
-            try {
-                DatabaseManager.DatabaseTransaction transaction = (Connection conn) -> {
-                    // Find the item in storage - ONLY from disks currently in drive bays
-                    // ORDER BY quantity ASC to take from less full cells first
-                    try (PreparedStatement stmt = conn.prepareStatement(
-                            "SELECT si.id, si.disk_id, si.item_data, si.quantity, si.max_stack_size " +
-                                    "FROM storage_items si " +
-                                    "JOIN storage_disks sd ON si.disk_id = sd.disk_id " +
-                                    "JOIN drive_bay_slots dbs ON sd.disk_id = dbs.disk_id " +
-                                    "WHERE dbs.network_id = ? AND si.item_hash = ? AND si.quantity > 0 AND dbs.disk_id IS NOT NULL " +
-                                    "ORDER BY si.quantity ASC")) { // CHANGED: Take from less full cells first
-
-                        stmt.setString(1, networkId);
-                        stmt.setString(2, itemHash);
-
-                        try (ResultSet rs = stmt.executeQuery()) {
-                            int remainingToRetrieve = amount;
-                            List<ItemStack> retrievedItems = new ArrayList<>();
-
-                            while (rs.next() && remainingToRetrieve > 0) {
-                                int cellId = rs.getInt("id");
-                                String diskId = rs.getString("disk_id");
-                                String itemData = rs.getString("item_data");
-                                int currentQuantity = rs.getInt("quantity");
-
-                                int toRetrieve = Math.min(remainingToRetrieve, currentQuantity);
-                                int newQuantity = currentQuantity - toRetrieve;
-
-                                plugin.debugLog("Retrieving " + toRetrieve + " from cell " + cellId + " in disk " + diskId +
-                                        " (cell had " + currentQuantity + ", will have " + newQuantity + ")");
-
-                                // Update this specific cell
-                                try (PreparedStatement updateStmt = conn.prepareStatement(
-                                        "UPDATE storage_items SET quantity = ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?")) {
-                                    updateStmt.setInt(1, newQuantity);
-                                    updateStmt.setInt(2, cellId);
-                                    updateStmt.executeUpdate();
-                                }
-
-                                // If quantity reaches 0, remove the cell entry
-                                if (newQuantity == 0) {
-                                    try (PreparedStatement deleteStmt = conn.prepareStatement(
-                                            "DELETE FROM storage_items WHERE id = ?")) {
-                                        deleteStmt.setInt(1, cellId);
-                                        deleteStmt.executeUpdate();
-                                    }
-                                    plugin.debugLog("Removed empty cell " + cellId + " from disk " + diskId);
-                                }
-
-                                // Deserialize item and set amount
-                                ItemStack item = deserializeItemStack(itemData);
-                                if (item != null) {
-                                    item.setAmount(toRetrieve);
-                                    retrievedItems.add(item);
-                                    remainingToRetrieve -= toRetrieve;
-                                }
-                            }
-
-                            // Combine all retrieved items into one stack
-                            if (!retrievedItems.isEmpty()) {
-                                ItemStack combinedItem = retrievedItems.getFirst().clone();
-                                int totalAmount = retrievedItems.stream().mapToInt(ItemStack::getAmount).sum();
-                                combinedItem.setAmount(totalAmount);
-                                result[0] = combinedItem;
-                                plugin.debugLog("Successfully combined " + retrievedItems.size() + " retrievals into " + totalAmount + " items");
-                            }
-                        }
-                    }
+    /**
+     * Retrieve full stacks of several item types from the network in one operation
+     * @param networkId The network to retrieve from
+     * @param stackCounts Hash of each item type to retrieve -> number of stacks
+     * @return The retrieved items split into stacks, empty if none were available
+     */
+    public List<ItemStack> retrieveStacks(String networkId, Map<String, Integer> stackCounts) throws Exception {
+        return plugin.getNetworkManager().withNetworkLock(networkId, () -> {
+            List<String> diskIds = loadNetworkDisks(networkId);
+            List<ItemStack> stacks = new ArrayList<>();
+
+            for (Map.Entry<String, Integer> entry : stackCounts.entrySet()) {
+                ItemStack prototype = itemPrototypeCache.get(entry.getKey());
+                if (prototype == null) continue;
+
+                int maxStackSize = prototype.getMaxStackSize();
+                ItemStack retrieved = retrieveFromDisks(networkId, diskIds, entry.getKey(), entry.getValue() * maxStackSize);
+                if (retrieved == null) continue;
+
+                // Split into stacks the API accepts
+                for (int remaining = retrieved.getAmount(); remaining > 0; remaining -= maxStackSize) {
+                    ItemStack stack = retrieved.clone();
+                    stack.setAmount(Math.min(remaining, maxStackSize));
+                    stacks.add(stack);
+                }
+            }
+            return stacks;
+        });
+    }
 
-                    // Update disk cell counts for disks that are currently in drive bays
-                    List<String> diskIds = getNetworkDiskIds(conn, networkId);
-                    updateDiskCellCounts(conn, diskIds);
-                };
+    /**
+     * Get the disks in the network's drive bays and make sure the ledger has them, caller holds the network lock
+     */
+    private List<String> loadNetworkDisks(String networkId) {
+        // Only disks currently in drive bays of this network
+        List<String> diskIds = plugin.getDriveBayDiskCache().getOrderedNetworkDiskIds(networkId);
+        trackDisks(networkId, diskIds);
+        if (diskIds.stream().allMatch(itemLedger::isLoaded)) {
+            return diskIds;
+        }
 
-                plugin.getDatabaseManager().executeTransaction(transaction);
-            } catch (SQLException e) {
-                throw new RuntimeException(e);
+        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            itemLedger.loadDisks(conn, diskIds);
+            return diskIds;
+        } catch (SQLException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Take up to an amount of one item type from the network's disks, caller holds the network lock
+     * @return The retrieved items as a single stack that may exceed the max stack size, or null if not available
+     */
+    private ItemStack retrieveFromDisks(String networkId, List<String> diskIds, String itemHash, int amount) {
+        // Take from less full cells first
+        List<ItemLedger.Cell> cells = new ArrayList<>();
+        for (String diskId : diskIds) {
+            cells.addAll(itemLedger.getCells(diskId, itemHash));
+        }
+        cells.sort(Comparator.comparingInt(ItemLedger.Cell::getQuantity));
+
+        if (cells.isEmpty()) {
+            return null;
+        }
+
+        // Resolve the prototype before touching any cell so a corrupt entry can't swallow items
+        ItemStack combinedItem = itemPrototypeCache.get(itemHash);
+        if (combinedItem == null) {
+            return null;
+        }
+
+        // Only keep the allocator in step if it describes these disks, otherwise it is rebuilt on the next store
+        CellAllocator allocator = cellAllocators.get(networkId);
+        if (allocator != null && !allocator.covers(diskIds)) {
+            allocator = null;
+        }
+
+        int remainingToRetrieve = amount;
+        int totalRetrieved = 0;
+
+        for (ItemLedger.Cell cell : cells) {
+            if (remainingToRetrieve <= 0) break;
+
+            int currentQuantity = cell.getQuantity();
+            int toRetrieve = Math.min(remainingToRetrieve, currentQuantity);
+            if (toRetrieve <= 0) continue;
+
+            plugin.debugLog("Retrieving " + toRetrieve + " from cell " + cell.getId() + " in disk " + cell.getDiskId() +
+                    " (cell had " + currentQuantity + ", will have " + (currentQuantity - toRetrieve) + ")");
+
+            // Cells that reach 0 are removed by the ledger
+            itemLedger.adjustCell(cell, -toRetrieve);
+            adjustItemIndex(networkId, cell.getDiskId(), itemHash, -toRetrieve);
+            if (cell.getQuantity() == 0 && allocator != null) {
+                allocator.adjustFreeCells(cell.getDiskId(), 1);
             }
 
-            return result[0];
-        });
+            remainingToRetrieve -= toRetrieve;
+            totalRetrieved += toRetrieve;
+        }
+
+        if (totalRetrieved == 0) {
+            return null;
+        }
+
+        combinedItem.setAmount(totalRetrieved);
+        plugin.debugLog("Successfully retrieved " + totalRetrieved + " items from network " + networkId);
+        return combinedItem;
     }
 
     /**
@@ -195,7 +246,7 @@ public class StorageManager {
      * Consolidate same item types from multiple disks into single display slot
      */
     public List<StoredItem> getNetworkItems(String networkId) throws Exception {
-        return plugin.getNetworkManager().withNetworkLock(networkId, () -> {
+        return plugin.getNetworkManager().withNetworkReadLock(networkId, () -> {
             List<StoredItem> items = new ArrayList<>();
 
             try {
@@ -207,30 +258,28 @@ public class StorageManager {
                     return items;
                 }
 
+                trackDisks(networkId, connectedDiskIds);
                 try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-                    // Build a dynamic query based on actually connected disks
-                    StringBuilder queryBuilder = getStringBuilder(connectedDiskIds);
+                    itemLedger.loadDisks(conn, connectedDiskIds);
+                }
 
-                    try (PreparedStatement stmt = conn.prepareStatement(queryBuilder.toString())) {
-                        int paramIndex = 1;
-                        for (String diskId : connectedDiskIds) {
-                            stmt.setString(paramIndex++, diskId);
-                        }
+                // Consolidate the per-disk item totals of all connected disks
+                Map<String, Integer> totals = new HashMap<>();
+                for (String diskId : connectedDiskIds) {
+                    for (ItemLedger.ItemTotal total : itemLedger.getItemTotals(diskId)) {
+                        totals.merge(total.itemHash(), total.quantity(), Integer::sum);
+                    }
+                }
 
-                        try (ResultSet rs = stmt.executeQuery()) {
-                            while (rs.next()) {
-                                String itemHash = rs.getString("item_hash");
-                                String itemData = rs.getString("item_data");
-                                int quantity = rs.getInt("total_quantity");
-
-                                ItemStack item = deserializeItemStack(itemData);
-                                if (item != null) {
-                                    items.add(new StoredItem(itemHash, item, quantity));
-                                }
-                            }
-                        }
+                for (Map.Entry<String, Integer> entry : totals.entrySet()) {
+                    if (entry.getValue() <= 0) continue;
+
+                    ItemStack item = itemPrototypeCache.get(entry.getKey());
+                    if (item != null) {
+                        items.add(new StoredItem(entry.getKey(), item, entry.getValue()));
                     }
                 }
+                items.sort(Comparator.comparingInt(StoredItem::quantity).reversed());
 
                 plugin.debugLog("Found " + items.size() + " consolidated item types from " + connectedDiskIds.size() + " connected disks in network " + networkId);
 
@@ -243,324 +292,335 @@ public class StorageManager {
         });
     }
 
-    private static @NotNull StringBuilder getStringBuilder(Set<String> connectedDiskIds) {
-        StringBuilder queryBuilder = new StringBuilder(
-                "SELECT si.item_hash, si.item_data, SUM(si.quantity) as total_quantity " +
-                "FROM storage_items si " +
-                "JOIN storage_disks sd ON si.disk_id = sd.disk_id " +
-                "WHERE sd.disk_id IN (");
-
-        // Add placeholders for disk IDs
-        for (int i = 0; i < connectedDiskIds.size(); i++) {
-            if (i > 0) queryBuilder.append(", ");
-            queryBuilder.append("?");
+    /**
+     * Get the total quantity of an item type stored in the disks connected to a network
+     * Served from the network's item index, which is only rebuilt from the ledger when the connected disks change
+     */
+    public int getItemQuantity(String networkId, String itemHash) throws Exception {
+        Set<String> diskIds = plugin.getDriveBayDiskCache().getNetworkDiskIds(networkId);
+
+        Integer quantity = plugin.getNetworkManager().withOptimisticNetworkRead(networkId, () -> {
+            NetworkItemIndex index = itemIndexes.get(networkId);
+            return index != null && index.covers(diskIds) ? index.getQuantity(itemHash) : null;
+        });
+        if (quantity != null) {
+            return quantity;
         }
 
-        queryBuilder.append(") GROUP BY si.item_hash " +
-                "HAVING total_quantity > 0 " +
-                "ORDER BY total_quantity DESC");
-        return queryBuilder;
+        // Rebuild holding the lock, so no store or retrieve changes the ledger while it is summed
+        return plugin.getNetworkManager().withNetworkReadLock(networkId, () -> getItemIndex(networkId, diskIds).getQuantity(itemHash));
     }
 
     /**
      * Get disk IDs that are currently connected to a network by checking actual connectivity
      * This ensures terminals only show items from drive bays that are currently part of the network
      */
-    private Set<String> getConnectedDiskIdsForNetwork(String networkId) throws Exception {
-        Set<String> connectedDiskIds = new HashSet<>();
-        
-        try {
-            // Get network info to find all currently connected drive bays
-            Set<Location> connectedDriveBays = new HashSet<>();
-            
-            // Find any block in this network to detect the full topology
-            try (Connection conn = plugin.getDatabaseManager().getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(
-                         "SELECT world_name, x, y, z FROM network_blocks WHERE network_id = ? LIMIT 1")) {
-                
-                stmt.setString(1, networkId);
-                try (ResultSet rs = stmt.executeQuery()) {
-                    if (rs.next()) {
-                        Location testLocation = new Location(
-                                plugin.getServer().getWorld(rs.getString("world_name")),
-                                rs.getInt("x"),
-                                rs.getInt("y"),
-                                rs.getInt("z")
-                        );
-                        
-                        // Detect the current network topology from this location
-                        NetworkInfo currentNetwork = plugin.getNetworkManager().detectNetwork(testLocation);
-                        if (currentNetwork != null && currentNetwork.isValid()) {
-                            connectedDriveBays = currentNetwork.getDriveBays();
-                        }
-                    }
-                }
-            }
-            
-            if (connectedDriveBays.isEmpty()) {
-                plugin.debugLog("No drive bays detected in current network topology for " + networkId);
-                return connectedDiskIds;
-            }
-            
-            // Now get disk IDs from these connected drive bay locations
-            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
-                for (Location driveBayLocation : connectedDriveBays) {
-                    try (PreparedStatement stmt = conn.prepareStatement(
-                            "SELECT disk_id FROM drive_bay_slots WHERE world_name = ? AND x = ? AND y = ? AND z = ? AND disk_id IS NOT NULL")) {
-                        
-                        stmt.setString(1, driveBayLocation.getWorld().getName());
-                        stmt.setInt(2, driveBayLocation.getBlockX());
-                        stmt.setInt(3, driveBayLocation.getBlockY());
-                        stmt.setInt(4, driveBayLocation.getBlockZ());
-                        
-                        try (ResultSet rs = stmt.executeQuery()) {
-                            while (rs.next()) {
-                                String diskId = rs.getString("disk_id");
-                                if (diskId != null) {
-                                    connectedDiskIds.add(diskId);
-                                }
-                            }
-                        }
-                    }
-                }
+    private Set<String> getConnectedDiskIdsForNetwork(String networkId) {
+        Set<String> connectedDiskIds = plugin.getDriveBayDiskCache().getNetworkDiskIds(networkId);
+        plugin.debugLog("Found " + connectedDiskIds.size() + " connected disks for network " + networkId);
+        return connectedDiskIds;
+    }
+
+    /**
+     * Stacks of the same item type from a single store request
+     */
+    private static final class StoreGroup {
+        private final String itemHash;
+        private final ItemStack template;
+        private final List<ItemStack> stacks = new ArrayList<>();
+        private int totalAmount;
+
+        private StoreGroup(String itemHash, ItemStack template) {
+            this.itemHash = itemHash;
+            this.template = template;
+        }
+
+        private void add(ItemStack stack) {
+            stacks.add(stack);
+            totalAmount += stack.getAmount();
+        }
+
+        /**
+         * Split the unstored amount back over the original stacks, the first stacks are the ones that were stored
+         */
+        private List<ItemStack> getRemainders(int remaining) {
+            LinkedList<ItemStack> result = new LinkedList<>();
+            for (int i = stacks.size() - 1; i >= 0 && remaining > 0; i--) {
+                ItemStack stack = stacks.get(i);
+                int amount = Math.min(remaining, stack.getAmount());
+                ItemStack remainder = stack.clone();
+                remainder.setAmount(amount);
+                result.addFirst(remainder);
+                remaining -= amount;
             }
-            
-            plugin.debugLog("Found " + connectedDiskIds.size() + " disks in " + connectedDriveBays.size() + " connected drive bays for network " + networkId);
-            
-        } catch (Exception e) {
-            plugin.getLogger().severe("Error detecting connected disks for network " + networkId + ": " + e.getMessage());
-            throw e;
+            return result;
         }
-        
-        return connectedDiskIds;
     }
 
-    private ItemStack storeItemInNetwork(Connection conn, String networkId, List<String> diskIds, ItemStack item) throws SQLException {
-        String itemHash = itemManager.generateItemHash(item);
-        String itemData = serializeItemStack(item);
-        int amountToStore = item.getAmount();
+    /**
+     * Place a group of same-type stacks into the network's cells
+     * @return the amount that could not be stored
+     */
+    private int storeItemInNetwork(Connection conn, String networkId, List<String> diskIds, CellAllocator allocator, StoreGroup group) {
+        ItemStack item = group.template;
+        String itemHash = group.itemHash;
+        itemPrototypeCache.register(itemHash, item);
+        int amountToStore = group.totalAmount;
         int maxStackSize = item.getMaxStackSize();
 
-        plugin.debugLog("Storing " + amountToStore + " " + item.getType() + " (hash: " + itemHash.substring(0, 8) + "...)");
+        plugin.debugLog("Storing " + amountToStore + " " + item.getType() + " from " + group.stacks.size() + " stacks (hash: " + itemHash.substring(0, 8) + "...)");
 
         // PHASE 1: Fill existing partial cells first (most space-efficient)
         for (String diskId : diskIds) {
             if (amountToStore <= 0) break;
 
             // Get the maximum items per cell for this specific disk
-            int MAX_ITEMS_PER_CELL = getDiskMaxItemsPerCell(conn, diskId);
+            int MAX_ITEMS_PER_CELL = allocator.getItemsPerCell(diskId);
             plugin.debugLog("Disk " + diskId + " has capacity of " + MAX_ITEMS_PER_CELL + " items per cell");
 
-            // Get all partial cells for this item type, ordered by quantity DESC (fill fuller cells first)
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "SELECT id, quantity FROM storage_items WHERE disk_id = ? AND item_hash = ? AND quantity < ? ORDER BY quantity DESC")) {
-                stmt.setString(1, diskId);
-                stmt.setString(2, itemHash);
-                stmt.setInt(3, MAX_ITEMS_PER_CELL);
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next() && amountToStore > 0) {
-                        int cellId = rs.getInt("id");
-                        int currentQuantity = rs.getInt("quantity");
-                        int canAdd = Math.min(amountToStore, MAX_ITEMS_PER_CELL - currentQuantity);
-
-                        if (canAdd > 0) {
-                            // Update this specific cell
-                            try (PreparedStatement updateStmt = conn.prepareStatement(
-                                    "UPDATE storage_items SET quantity = quantity + ?, updated_at = CURRENT_TIMESTAMP WHERE id = ?")) {
-                                updateStmt.setInt(1, canAdd);
-                                updateStmt.setInt(2, cellId);
-                                updateStmt.executeUpdate();
-                            }
-
-                            amountToStore -= canAdd;
-                            plugin.debugLog("Added " + canAdd + " items to existing cell " + cellId + " in disk " + diskId +
-                                    " (now " + (currentQuantity + canAdd) + "/" + MAX_ITEMS_PER_CELL + ")");
-                        }
-                    }
+            // Get all partial cells for this item type, fuller cells first
+            List<ItemLedger.Cell> partialCells = new ArrayList<>();
+            for (ItemLedger.Cell cell : itemLedger.getCells(diskId, itemHash)) {
+                if (cell.getQuantity() < MAX_ITEMS_PER_CELL) {
+                    partialCells.add(cell);
                 }
             }
-        }
+            partialCells.sort(Comparator.comparingInt(ItemLedger.Cell::getQuantity).reversed());
 
-        // PHASE 2: Create new cells for remaining items
-        for (String diskId : diskIds) {
-            if (amountToStore <= 0) break;
+            for (ItemLedger.Cell cell : partialCells) {
+                if (amountToStore <= 0) break;
 
-            // Get the maximum items per cell for this specific disk
-            int MAX_ITEMS_PER_CELL = getDiskMaxItemsPerCell(conn, diskId);
+                int currentQuantity = cell.getQuantity();
+                int canAdd = Math.min(amountToStore, MAX_ITEMS_PER_CELL - currentQuantity);
 
-            // Check available cells
-            int availableCells = getAvailableCells(conn, diskId);
-            plugin.debugLog("Disk " + diskId + " has " + availableCells + " available cells (capacity: " + MAX_ITEMS_PER_CELL + " per cell)");
+                if (canAdd > 0) {
+                    itemLedger.adjustCell(cell, canAdd);
+                    adjustItemIndex(networkId, diskId, itemHash, canAdd);
 
-            while (availableCells > 0 && amountToStore > 0) {
-                int canStore = Math.min(amountToStore, MAX_ITEMS_PER_CELL);
+                    amountToStore -= canAdd;
+                    plugin.debugLog("Added " + canAdd + " items to existing cell " + cell.getId() + " in disk " + diskId +
+                            " (now " + (currentQuantity + canAdd) + "/" + MAX_ITEMS_PER_CELL + ")");
+                }
+            }
+        }
 
-                try (PreparedStatement stmt = conn.prepareStatement(
-                        "INSERT INTO storage_items (disk_id, item_hash, item_data, quantity, max_stack_size) VALUES (?, ?, ?, ?, ?)")) {
-                    stmt.setString(1, diskId);
-                    stmt.setString(2, itemHash);
-                    stmt.setString(3, itemData);
-                    stmt.setInt(4, canStore);
-                    stmt.setInt(5, maxStackSize);
+        // PHASE 2: Create new cells for remaining items, on the highest tier disk with free cells
+        while (amountToStore > 0) {
+            String diskId = allocator.nextDisk();
+            if (diskId == null) break;
 
-                    stmt.executeUpdate();
+            int canStore = Math.min(amountToStore, allocator.getItemsPerCell(diskId));
 
-                    amountToStore -= canStore;
-                    availableCells--;
-                    plugin.debugLog("Created new cell in disk " + diskId + " with " + canStore + " items (" + availableCells + " cells remaining)");
+            ItemLedger.Cell cell = itemLedger.createCell(diskId, itemHash, canStore, maxStackSize);
+            allocator.adjustFreeCells(diskId, -1);
+            adjustItemIndex(networkId, diskId, itemHash, canStore);
 
-                } catch (SQLException e) {
-                    plugin.getLogger().severe("Error creating new storage cell in disk " + diskId + ": " + e.getMessage());
-                    break; // Stop trying this disk
-                }
-            }
+            amountToStore -= canStore;
+            plugin.debugLog("Created new cell " + cell.getId() + " in disk " + diskId + " with " + canStore + " items (" + allocator.getFreeCells(diskId) + " cells remaining)");
         }
 
         // Return remainder if any
         if (amountToStore > 0) {
-            // Get network location for better error reporting
-            String locationInfo = "";
-            try {
+            // Only report in debug mode, importers hit a full network every cycle
+            if (plugin.getConfigManager().isDebugMode()) {
+                // Get network location for better error reporting
+                String locationInfo = "";
                 try (PreparedStatement locationStmt = conn.prepareStatement(
                         "SELECT world_name, x, y, z FROM network_blocks WHERE network_id = ? AND block_type = 'STORAGE_SERVER' LIMIT 1")) {
                     locationStmt.setString(1, networkId);
                     try (ResultSet rs = locationStmt.executeQuery()) {
                         if (rs.next()) {
-                            locationInfo = " at " + rs.getString("world_name") + " " + 
+                            locationInfo = " at " + rs.getString("world_name") + " " +
                                          rs.getInt("x") + "," + rs.getInt("y") + "," + rs.getInt("z");
                         }
                     }
+                } catch (SQLException e) {
+                    plugin.debugLog("Error getting network location: " + e.getMessage());
                 }
-            } catch (SQLException e) {
-                plugin.debugLog("Error getting network location: " + e.getMessage());
-            }
 
-            // Only show warning in debug mode
-            if (plugin.getConfigManager().isDebugMode()) {
                 plugin.getLogger().warning("Could not store " + amountToStore + " items - network storage full" + locationInfo);
-            } else {
-                plugin.debugLog("Could not store " + amountToStore + " items - network storage full" + locationInfo);
-            }
 
-            // Log detailed capacity info for debugging
-            for (String diskId : diskIds) {
-                try {
-                    int availableCells = getAvailableCells(conn, diskId);
-                    int maxCells = getMaxCells(conn, diskId);
-                    int maxItemsPerCell = getDiskMaxItemsPerCell(conn, diskId);
-                    plugin.debugLog("Disk " + diskId + " final state: " + availableCells + "/" + maxCells +
-                            " cells available (" + maxItemsPerCell + " items per cell)");
-                } catch (SQLException e) {
-                    plugin.getLogger().warning("Error getting final disk state: " + e.getMessage());
+                // Log detailed capacity info for debugging
+                for (String diskId : diskIds) {
+                    plugin.debugLog("Disk " + diskId + " final state: " + allocator.getFreeCells(diskId) + "/" + getMaxCells(diskId) +
+                            " cells available (" + allocator.getItemsPerCell(diskId) + " items per cell)");
                 }
             }
 
-            ItemStack remainder = item.clone();
-            remainder.setAmount(amountToStore);
-            return remainder;
+            return amountToStore;
         }
 
-        plugin.debugLog("Successfully stored all " + item.getAmount() + " items");
-        return null;
+        plugin.debugLog("Successfully stored all " + group.totalAmount + " items");
+        return 0;
     }
 
-    // Helper method to get disk-specific capacity
-    private int getDiskMaxItemsPerCell(Connection conn, String diskId) throws SQLException {
-        try {
-            // Get the tier from the database and return tier-specific capacity
-            String tier = getTierFromDatabase(conn, diskId);
-            return plugin.getItemManager().getItemsPerCellForTier(tier);
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error getting tier-specific capacity for disk " + diskId + ": " + e.getMessage());
-            return 127; // 1k tier default fallback
+    // Helper method to get disk-specific capacity from the cached disk tier
+    private int getDiskMaxItemsPerCell(String diskId) {
+        DiskMetadataCache.DiskMetadata metadata = plugin.getDiskMetadataCache().get(diskId);
+        return plugin.getItemManager().getItemsPerCellForTier(metadata != null ? metadata.tier() : "1k");
+    }
+
+    // Helper method to get available cells, using the ledger's cell count for the disk
+    private int getAvailableCells(String diskId) {
+        return getMaxCells(diskId) - Math.max(0, itemLedger.getUsedCells(diskId));
+    }
+
+    /**
+     * Get the free cell allocator for a network, rebuilding it from the ledger if its disks changed
+     */
+    private CellAllocator getCellAllocator(String networkId, List<String> diskIds) {
+        CellAllocator allocator = cellAllocators.get(networkId);
+        if (allocator != null && allocator.covers(diskIds)) {
+            return allocator;
+        }
+
+        allocator = new CellAllocator(diskIds);
+        for (String diskId : diskIds) {
+            allocator.setCapacity(diskId, getDiskMaxItemsPerCell(diskId), getAvailableCells(diskId));
         }
+        cellAllocators.put(networkId, allocator);
+        return allocator;
     }
 
     /**
-     * Helper method to get tier from database within an existing connection
+     * Get the item index of a network, rebuilding it from the ledger if its disks changed
      */
-    private String getTierFromDatabase(Connection conn, String diskId) throws SQLException {
-        try (PreparedStatement stmt = conn.prepareStatement("SELECT tier FROM storage_disks WHERE disk_id = ?")) {
-            stmt.setString(1, diskId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    String tier = rs.getString("tier");
-                    return tier != null ? tier : "1k"; // Default to 1k if null
-                }
+    private NetworkItemIndex getItemIndex(String networkId, Set<String> diskIds) throws SQLException {
+        NetworkItemIndex index = itemIndexes.get(networkId);
+        if (index != null && index.covers(diskIds)) {
+            return index;
+        }
+
+        trackDisks(networkId, diskIds);
+        if (!diskIds.stream().allMatch(itemLedger::isLoaded)) {
+            try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+                itemLedger.loadDisks(conn, diskIds);
             }
         }
-        return "1k"; // Default fallback
+
+        index = new NetworkItemIndex(diskIds);
+        for (String diskId : diskIds) {
+            for (ItemLedger.ItemTotal total : itemLedger.getItemTotals(diskId)) {
+                index.adjust(diskId, total.itemHash(), total.quantity());
+            }
+        }
+        itemIndexes.put(networkId, index);
+        plugin.debugLog("Built item index of network " + networkId + " from " + diskIds.size() + " disks");
+        return index;
     }
 
-    // Helper method to get available cells (replace the existing hasAvailableCells method)
-    private int getAvailableCells(Connection conn, String diskId) throws SQLException {
-        try (PreparedStatement stmt = conn.prepareStatement(
-                "SELECT (SELECT max_cells FROM storage_disks WHERE disk_id = ?) - COUNT(*) as available_cells FROM storage_items WHERE disk_id = ?")) {
-            stmt.setString(1, diskId);
-            stmt.setString(2, diskId);
+    /**
+     * Record the network using these disks, caller holds that network's lock
+     */
+    private void trackDisks(String networkId, Collection<String> diskIds) {
+        for (String diskId : diskIds) {
+            diskNetworks.put(diskId, networkId);
+        }
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("available_cells");
-                }
-            }
+    private void adjustItemIndex(String networkId, String diskId, String itemHash, int delta) {
+        NetworkItemIndex index = itemIndexes.get(networkId);
+        if (index != null) {
+            index.adjust(diskId, itemHash, delta);
         }
-        return 0;
     }
 
-    private List<String> getNetworkDiskIds(Connection conn, String networkId) throws SQLException {
-        List<String> diskIds = new ArrayList<>();
+    private int getMaxCells(String diskId) {
+        DiskMetadataCache.DiskMetadata metadata = plugin.getDiskMetadataCache().get(diskId);
+        return metadata != null ? metadata.maxCells() : 27;
+    }
 
-        try (PreparedStatement stmt = conn.prepareStatement(
-                "SELECT DISTINCT dbs.disk_id FROM drive_bay_slots dbs WHERE dbs.network_id = ? AND dbs.disk_id IS NOT NULL ORDER BY dbs.slot_number")) {
-            stmt.setString(1, networkId);
+    /**
+     * Get the in-memory ledger backing cell quantities
+     */
+    public ItemLedger getItemLedger() {
+        return itemLedger;
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    diskIds.add(rs.getString("disk_id"));
-                }
-            }
-        }
+    /**
+     * Get the dictionary of decoded item prototypes
+     */
+    public ItemPrototypeCache getItemPrototypeCache() {
+        return itemPrototypeCache;
+    }
 
-        return diskIds;
+    /**
+     * Get the pool running importer and exporter storage work off the main thread
+     */
+    public StorageTransfers getTransfers() {
+        return transfers;
     }
 
-    private void updateDiskCellCounts(Connection conn, List<String> diskIds) throws SQLException {
-        for (String diskId : diskIds) {
-            try (PreparedStatement stmt = conn.prepareStatement(
-                    "UPDATE storage_disks SET used_cells = (SELECT COUNT(*) FROM storage_items WHERE disk_id = ?), updated_at = CURRENT_TIMESTAMP WHERE disk_id = ?")) {
-                stmt.setString(1, diskId);
-                stmt.setString(2, diskId);
-                stmt.executeUpdate();
-            }
-        }
+    /**
+     * Write all pending storage changes to the database now
+     */
+    public void flushPendingChanges() {
+        itemLedger.flush();
     }
 
-    private int getMaxCells(Connection conn, String diskId) throws SQLException {
-        try (PreparedStatement stmt = conn.prepareStatement(
-                "SELECT max_cells FROM storage_disks WHERE disk_id = ?")) {
-            stmt.setString(1, diskId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() ? rs.getInt(1) : 27;
-            }
+    /**
+     * Correct any used_cells counts that no longer match the stored cells
+     *
+     * @return the number of disks that were corrected
+     */
+    public int reconcileCellCounts() throws SQLException {
+        return itemLedger.reconcileCellCounts();
+    }
+
+    /**
+     * Persist a disk's pending changes and drop it from memory, used when it leaves a drive bay
+     * Holds the lock of the network that last used the disk, so no store or retrieve running on the transfer pool
+     * sees the disk disappear halfway through.
+     */
+    public void releaseDisk(String diskId) {
+        String networkId = diskNetworks.get(diskId);
+        if (networkId == null) {
+            evictDisk(diskId);
+            return;
         }
+
+        try {
+            plugin.getNetworkManager().withNetworkLock(networkId, () -> {
+                evictDisk(diskId);
+                diskNetworks.remove(diskId, networkId);
+                return null;
+            });
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to release disk " + diskId + ": " + e.getMessage());
+        }
+    }
+
+    private void evictDisk(String diskId) {
+        cellAllocators.values().removeIf(allocator -> allocator.contains(diskId));
+        itemIndexes.values().removeIf(index -> index.contains(diskId));
+        itemLedger.evictDisk(diskId);
+    }
+
+    /**
+     * Flush all pending storage changes, called on plugin disable
+     */
+    public void shutdown() {
+        // Finish in-flight importer and exporter transfers before the ledger is flushed
+        transfers.shutdown();
+        itemLedger.shutdown();
     }
 
-    public String serializeItemStack(ItemStack item) {
+    public byte[] serializeItemStack(ItemStack item) {
         try {
-            // Use Paper's modern serialization
-            byte[] serialized = item.serializeAsBytes();
-            return Base64.getEncoder().encodeToString(serialized);
+            // Use Paper's modern serialization, stored as raw bytes
+            return item.serializeAsBytes();
         } catch (Exception e) {
             plugin.getLogger().warning("Failed to serialize item: " + e.getMessage());
-            return "";
+            return new byte[0];
         }
     }
 
-    public ItemStack deserializeItemStack(String data) {
+    public ItemStack deserializeItemStack(byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
         try {
-            byte[] bytes = Base64.getDecoder().decode(data);
             // Use Paper's modern deserialization
             return ItemStack.deserializeBytes(bytes);
         } catch (Exception e) {
@@ -568,4 +628,26 @@ public class StorageManager {
             return null;
         }
     }
+
+    /**
+     * Read the serialized item of a row, falling back to the legacy Base64 item_data column for rows
+     * the background conversion has not reached yet
+     */
+    public static byte[] readItemBytes(ResultSet rs) throws SQLException {
+        byte[] bytes = rs.getBytes("item_bytes");
+        if (bytes != null) {
+            return bytes;
+        }
+
+        String legacyData = rs.getString("item_data");
+        if (legacyData == null || legacyData.isEmpty()) {
+            return null;
+        }
+
+        try {
+            return Base64.getDecoder().decode(legacyData);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
\ No newline at end of file
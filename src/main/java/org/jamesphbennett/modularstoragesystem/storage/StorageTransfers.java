@@ -0,0 +1,148 @@
+package org.jamesphbennett.modularstoragesystem.storage;
+
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the storage side of importer and exporter transfers off the main thread
+ * A transfer does its storage work on a dedicated pool, then commits the world side on the main thread.
+ * Transfers that can no longer be committed because the plugin shuts down are aborted on the main thread during shutdown,
+ * so they can undo their storage work or give their items back to the world.
+ */
+public class StorageTransfers {
+
+    /**
+     * Result waiting for its main thread commit, exactly one of commit and abort runs
+     */
+    private static final class PendingCommit<T> {
+        private final T result;
+        private final Consumer<T> commit;
+        private final Consumer<T> abort;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private PendingCommit(T result, Consumer<T> commit, Consumer<T> abort) {
+            this.result = result;
+            this.commit = commit;
+            this.abort = abort;
+        }
+
+        private void commit() {
+            if (done.compareAndSet(false, true)) commit.accept(result);
+        }
+
+        private void abort() {
+            if (done.compareAndSet(false, true)) abort.accept(result);
+        }
+    }
+
+    private final ModularStorageSystem plugin;
+    private final ExecutorService executor;
+    private final Set<PendingCommit<?>> pendingCommits = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutDown;
+
+    public StorageTransfers(ModularStorageSystem plugin, int threads) {
+        this.plugin = plugin;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "MSS-Storage-Transfer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Run storage work off the main thread and hand its result to the main thread
+     *
+     * @param work   storage work, must handle its own failures and describe them in its result, a throwing work is dropped
+     * @param commit applies the result on the main thread
+     * @param abort  undoes the storage work when the result can no longer be committed, on the main thread during shutdown
+     *               unless the pool outlived the shutdown wait
+     */
+    public <T> void submit(Supplier<T> work, Consumer<T> commit, Consumer<T> abort) {
+        try {
+            executor.execute(() -> {
+                T result;
+                try {
+                    result = work.get();
+                } catch (Exception e) {
+                    plugin.getLogger().severe("Storage transfer failed: " + e.getMessage());
+                    return;
+                }
+                scheduleCommit(new PendingCommit<>(result, commit, abort));
+            });
+        } catch (RejectedExecutionException e) {
+            plugin.getLogger().warning("Storage transfer rejected, the transfer pool is shut down");
+        }
+    }
+
+    /**
+     * Run storage work off the main thread that needs no commit
+     */
+    public void submit(Runnable work) {
+        try {
+            executor.execute(work);
+        } catch (RejectedExecutionException e) {
+            plugin.getLogger().warning("Storage transfer rejected, the transfer pool is shut down");
+        }
+    }
+
+    /**
+     * Stop accepting transfers, wait for the running ones and abort every commit that didn't run yet
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                plugin.getLogger().warning("Storage transfers did not finish within 10 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        shutDown = true;
+        for (PendingCommit<?> pending : pendingCommits) {
+            abort(pending);
+        }
+        pendingCommits.clear();
+    }
+
+    private void scheduleCommit(PendingCommit<?> pending) {
+        pendingCommits.add(pending);
+        try {
+            if (plugin.isEnabled()) {
+                plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    pendingCommits.remove(pending);
+                    pending.commit();
+                });
+                return;
+            }
+        } catch (IllegalPluginAccessException e) {
+            // Disabled between the check and scheduling
+        }
+
+        // Left for shutdown to abort on the main thread, unless it already went past them
+        if (shutDown && pendingCommits.remove(pending)) {
+            abort(pending);
+        }
+    }
+
+    private void abort(PendingCommit<?> pending) {
+        try {
+            pending.abort();
+        } catch (Exception e) {
+            plugin.getLogger().severe("Failed to undo storage transfer: " + e.getMessage());
+        }
+    }
+}
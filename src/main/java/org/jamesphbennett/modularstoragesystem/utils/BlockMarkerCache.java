@@ -1,164 +1,202 @@
 package org.jamesphbennett.modularstoragesystem.utils;
 
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Shared cache for block marker database queries to prevent DB spam
- * Used by BlockListener and PistonListener
+ * Custom block type of every marked location, partitioned by world and chunk
+ * Marking and unmarking a block updates the database first and this index after it, block checks only read the index.
  */
 public class BlockMarkerCache {
 
+    /**
+     * Receives every marker held in the index
+     */
+    @FunctionalInterface
+    public interface MarkerVisitor {
+        void visit(String worldName, int x, int y, int z, String blockType);
+    }
+
     private final ModularStorageSystem plugin;
 
-    // Block marker cache to prevent DB spam - 5 second TTL
-    private final Map<String, Boolean> blockMarkerCache = new ConcurrentHashMap<>();
-    private final Map<String, Long> blockMarkerCacheExpiry = new ConcurrentHashMap<>();
-    private static final long BLOCK_MARKER_CACHE_DURATION_MS = 5000; // 5 seconds
+    // world name -> chunk key -> block key within the chunk -> block type
+    private final Map<String, Map<Long, Map<Integer, String>>> markers = new ConcurrentHashMap<>();
 
-    public BlockMarkerCache(ModularStorageSystem plugin) {
+    public BlockMarkerCache(ModularStorageSystem plugin) throws SQLException {
         this.plugin = plugin;
+        loadMarkers();
     }
 
     /**
      * Check if a location is marked as a specific custom block type
-     * Uses caching to prevent excessive database queries
      *
      * @param location The location to check
      * @param blockType The block type to check for (STORAGE_SERVER, DRIVE_BAY, MSS_TERMINAL, etc.)
      * @return true if the location is marked as that block type
      */
     public boolean isMarkedAsCustomBlock(Location location, String blockType) {
-        // Generate cache key from location and block type
-        String cacheKey = location.getWorld().getName() + ":" +
-                location.getBlockX() + ":" +
-                location.getBlockY() + ":" +
-                location.getBlockZ() + ":" + blockType;
-
-        // Check cache first
-        Long expiry = blockMarkerCacheExpiry.get(cacheKey);
-        if (expiry != null && System.currentTimeMillis() < expiry) {
-            Boolean cached = blockMarkerCache.get(cacheKey);
-            if (cached != null) {
-                return cached;
-            }
-        }
-
-        // Cache miss - query database
-        boolean result = queryDatabase(location, blockType);
-
-        // Store in cache
-        blockMarkerCache.put(cacheKey, result);
-        blockMarkerCacheExpiry.put(cacheKey, System.currentTimeMillis() + BLOCK_MARKER_CACHE_DURATION_MS);
-
-        return result;
+        return blockType.equals(getBlockType(location));
     }
 
     /**
      * Check if a location is marked as ANY MSS block (without specific type)
-     * Uses caching to prevent excessive database queries
      *
      * @param location The location to check
      * @return true if the location is marked as any MSS block
      */
     public boolean isMarkedAsMSSBlock(Location location) {
-        // Generate cache key from location (no specific block type)
-        String cacheKey = location.getWorld().getName() + ":" +
-                location.getBlockX() + ":" +
-                location.getBlockY() + ":" +
-                location.getBlockZ() + ":ANY";
-
-        // Check cache first
-        Long expiry = blockMarkerCacheExpiry.get(cacheKey);
-        if (expiry != null && System.currentTimeMillis() < expiry) {
-            Boolean cached = blockMarkerCache.get(cacheKey);
-            if (cached != null) {
-                return cached;
-            }
+        return getBlockType(location) != null;
+    }
+
+    /**
+     * Get the custom block type marked at a location
+     *
+     * @return the block type, or null if the location is not marked
+     */
+    public String getBlockType(Location location) {
+        if (location.getWorld() == null) {
+            return null;
+        }
+        return getBlockType(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    /**
+     * Get the custom block type marked at a block position, without needing a Location
+     *
+     * @return the block type, or null if the position is not marked
+     */
+    public String getBlockType(World world, int x, int y, int z) {
+        Map<Long, Map<Integer, String>> chunks = markers.get(world.getName());
+        if (chunks == null) {
+            return null;
+        }
+
+        Map<Integer, String> chunk = chunks.get(chunkKey(x >> 4, z >> 4));
+        if (chunk == null) {
+            return null;
         }
 
-        // Cache miss - query database (no block_type filter)
-        boolean result = queryDatabaseAny(location);
+        return chunk.get(blockKey(x, y, z));
+    }
 
-        // Store in cache
-        blockMarkerCache.put(cacheKey, result);
-        blockMarkerCacheExpiry.put(cacheKey, System.currentTimeMillis() + BLOCK_MARKER_CACHE_DURATION_MS);
+    /**
+     * Mark a location as a custom block, writing the database first and then the index
+     */
+    public void markCustomBlock(Location location, String blockType) throws SQLException {
+        String upsert = plugin.getConfigManager().isMySql() ? "REPLACE INTO" : "INSERT OR REPLACE INTO";
+        plugin.getDatabaseManager().executeTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    upsert + " custom_block_markers (world_name, x, y, z, block_type) VALUES (?, ?, ?, ?, ?)")) {
+                stmt.setString(1, location.getWorld().getName());
+                stmt.setInt(2, location.getBlockX());
+                stmt.setInt(3, location.getBlockY());
+                stmt.setInt(4, location.getBlockZ());
+                stmt.setString(5, blockType);
+                stmt.executeUpdate();
+            }
+        });
 
-        return result;
+        put(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), blockType);
+        plugin.getNetworkComponents().add(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), blockType);
     }
 
     /**
-     * Invalidate cache for a specific location and block type
+     * Remove the marker at a location, writing the database first and then the index
      */
-    public void invalidateBlockMarkerCache(Location location, String blockType) {
-        String cacheKey = location.getWorld().getName() + ":" +
-                location.getBlockX() + ":" +
-                location.getBlockY() + ":" +
-                location.getBlockZ() + ":" + blockType;
-
-        blockMarkerCache.remove(cacheKey);
-        blockMarkerCacheExpiry.remove(cacheKey);
+    public void removeCustomBlockMarker(Location location) throws SQLException {
+        plugin.getDatabaseManager().executeTransaction(conn -> {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "DELETE FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ?")) {
+                stmt.setString(1, location.getWorld().getName());
+                stmt.setInt(2, location.getBlockX());
+                stmt.setInt(3, location.getBlockY());
+                stmt.setInt(4, location.getBlockZ());
+                stmt.executeUpdate();
+            }
+        });
+
+        remove(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+        plugin.getNetworkComponents().remove(location.getWorld().getName(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
     }
 
     /**
-     * Invalidate ALL cache entries for a specific location (all block types)
+     * Get the number of markers held in the index
      */
-    public void invalidateAllBlockTypesAtLocation(Location location) {
-        // Invalidate cache for all possible block types at this location
-        String[] blockTypes = {"STORAGE_SERVER", "DRIVE_BAY", "MSS_TERMINAL", "EXPORTER", "IMPORTER", "SECURITY_TERMINAL", "ANY"};
-        for (String blockType : blockTypes) {
-            invalidateBlockMarkerCache(location, blockType);
+    public int getMarkerCount() {
+        int count = 0;
+        for (Map<Long, Map<Integer, String>> chunks : markers.values()) {
+            for (Map<Integer, String> chunk : chunks.values()) {
+                count += chunk.size();
+            }
         }
+        return count;
     }
 
     /**
-     * Query database for a specific block type at a location
+     * Visit every marker in the index
      */
-    private boolean queryDatabase(Location location, String blockType) {
-        try (Connection conn = plugin.getDatabaseManager().getConnection();
-             PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ? AND block_type = ?")) {
+    public void forEachMarker(MarkerVisitor visitor) {
+        for (Map.Entry<String, Map<Long, Map<Integer, String>>> world : markers.entrySet()) {
+            for (Map.Entry<Long, Map<Integer, String>> chunk : world.getValue().entrySet()) {
+                int baseX = (int) (chunk.getKey() >> 32) << 4;
+                int baseZ = (int) (long) chunk.getKey() << 4;
+                for (Map.Entry<Integer, String> block : chunk.getValue().entrySet()) {
+                    int key = block.getKey();
+                    visitor.visit(world.getKey(), baseX | ((key >> 4) & 15), key >> 8, baseZ | (key & 15), block.getValue());
+                }
+            }
+        }
+    }
 
-            stmt.setString(1, location.getWorld().getName());
-            stmt.setInt(2, location.getBlockX());
-            stmt.setInt(3, location.getBlockY());
-            stmt.setInt(4, location.getBlockZ());
-            stmt.setString(5, blockType);
+    private void put(String worldName, int x, int y, int z, String blockType) {
+        markers.computeIfAbsent(worldName, k -> new ConcurrentHashMap<>())
+                .compute(chunkKey(x >> 4, z >> 4), (k, chunk) -> {
+                    Map<Integer, String> target = chunk != null ? chunk : new ConcurrentHashMap<>();
+                    target.put(blockKey(x, y, z), blockType);
+                    return target;
+                });
+    }
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
-            }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error checking custom block marker: " + e.getMessage());
-            return false;
+    private void remove(String worldName, int x, int y, int z) {
+        Map<Long, Map<Integer, String>> chunks = markers.get(worldName);
+        if (chunks == null) {
+            return;
         }
+
+        long key = chunkKey(x >> 4, z >> 4);
+        // Drop the chunk partition once its last marker is gone
+        chunks.computeIfPresent(key, (k, chunk) -> {
+            chunk.remove(blockKey(x, y, z));
+            return chunk.isEmpty() ? null : chunk;
+        });
     }
 
-    /**
-     * Query database for ANY block type at a location
-     */
-    private boolean queryDatabaseAny(Location location) {
+    private void loadMarkers() throws SQLException {
         try (Connection conn = plugin.getDatabaseManager().getConnection();
              PreparedStatement stmt = conn.prepareStatement(
-                     "SELECT COUNT(*) FROM custom_block_markers WHERE world_name = ? AND x = ? AND y = ? AND z = ?")) {
-
-            stmt.setString(1, location.getWorld().getName());
-            stmt.setInt(2, location.getBlockX());
-            stmt.setInt(3, location.getBlockY());
-            stmt.setInt(4, location.getBlockZ());
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                return rs.next() && rs.getInt(1) > 0;
+                     "SELECT world_name, x, y, z, block_type FROM custom_block_markers");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                put(rs.getString("world_name"), rs.getInt("x"), rs.getInt("y"), rs.getInt("z"), rs.getString("block_type"));
             }
-        } catch (Exception e) {
-            plugin.getLogger().warning("Error checking MSS block marker: " + e.getMessage());
-            return false;
         }
+        plugin.debugLog("Loaded " + getMarkerCount() + " custom block markers");
+    }
+
+    private static long chunkKey(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    // Local x and z in the low 8 bits, world height above them
+    private static int blockKey(int x, int y, int z) {
+        return (y << 8) | ((x & 15) << 4) | (z & 15);
     }
 }
@@ -0,0 +1,59 @@
+package org.jamesphbennett.modularstoragesystem.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+
+/**
+ * Block positions packed into a single long, 26 bits x, 26 bits z and 12 bits y
+ * Used as allocation free keys for network traversals
+ */
+public final class BlockPos {
+
+    private static final int XZ_BITS = 26;
+    private static final int Y_BITS = 12;
+    private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+    private static final long Y_MASK = (1L << Y_BITS) - 1;
+    private static final int X_SHIFT = XZ_BITS + Y_BITS;
+    private static final int Z_SHIFT = Y_BITS;
+
+    // Offsets of the six face-adjacent blocks
+    public static final int[] FACE_X = {1, -1, 0, 0, 0, 0};
+    public static final int[] FACE_Y = {0, 0, 1, -1, 0, 0};
+    public static final int[] FACE_Z = {0, 0, 0, 0, 1, -1};
+
+    private BlockPos() {
+    }
+
+    public static long pack(int x, int y, int z) {
+        return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Z_SHIFT) | (y & Y_MASK);
+    }
+
+    public static long pack(Location location) {
+        return pack(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    public static int getX(long pos) {
+        return (int) (pos >> X_SHIFT);
+    }
+
+    public static int getY(long pos) {
+        return (int) (pos << (64 - Y_BITS) >> (64 - Y_BITS));
+    }
+
+    public static int getZ(long pos) {
+        return (int) (pos << (64 - X_SHIFT) >> (64 - XZ_BITS));
+    }
+
+    /**
+     * Get the position of a face-adjacent block
+     *
+     * @param face index into FACE_X/FACE_Y/FACE_Z
+     */
+    public static long offset(long pos, int face) {
+        return pack(getX(pos) + FACE_X[face], getY(pos) + FACE_Y[face], getZ(pos) + FACE_Z[face]);
+    }
+
+    public static Location toLocation(World world, long pos) {
+        return new Location(world, getX(pos), getY(pos), getZ(pos));
+    }
+}
@@ -0,0 +1,88 @@
+package org.jamesphbennett.modularstoragesystem.utils;
+
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of storage disk tier and cell count, keyed by disk ID
+ * Disk metadata never changes after crafting, so entries only need to be dropped when a disk leaves a drive bay
+ */
+public class DiskMetadataCache {
+
+    private final ModularStorageSystem plugin;
+
+    private final Map<String, DiskMetadata> metadataCache = new ConcurrentHashMap<>();
+
+    public DiskMetadataCache(ModularStorageSystem plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Tier and capacity of a storage disk
+     */
+    public record DiskMetadata(String tier, int maxCells) {
+    }
+
+    /**
+     * Get metadata for a disk, loading it from the database on a cache miss
+     *
+     * @return the disk metadata, or null if the disk does not exist
+     */
+    public DiskMetadata get(String diskId) {
+        DiskMetadata cached = metadataCache.get(diskId);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (Connection conn = plugin.getDatabaseManager().getConnection()) {
+            return get(conn, diskId);
+        } catch (SQLException e) {
+            plugin.getLogger().warning("Error loading metadata for disk " + diskId + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get metadata for a disk, using an existing connection on a cache miss
+     */
+    public DiskMetadata get(Connection conn, String diskId) throws SQLException {
+        DiskMetadata cached = metadataCache.get(diskId);
+        if (cached != null) {
+            return cached;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT tier, max_cells FROM storage_disks WHERE disk_id = ?")) {
+            stmt.setString(1, diskId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+
+                String tier = rs.getString("tier");
+                DiskMetadata metadata = new DiskMetadata(tier != null ? tier : "1k", rs.getInt("max_cells"));
+                metadataCache.put(diskId, metadata);
+                return metadata;
+            }
+        }
+    }
+
+    /**
+     * Record metadata for a disk that was just inserted or registered
+     */
+    public void put(String diskId, String tier, int maxCells) {
+        metadataCache.put(diskId, new DiskMetadata(tier != null ? tier : "1k", maxCells));
+    }
+
+    /**
+     * Drop the cached metadata for a disk
+     */
+    public void invalidate(String diskId) {
+        metadataCache.remove(diskId);
+    }
+}
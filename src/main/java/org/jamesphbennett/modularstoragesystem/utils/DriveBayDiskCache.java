@@ -0,0 +1,177 @@
+package org.jamesphbennett.modularstoragesystem.utils;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jamesphbennett.modularstoragesystem.ModularStorageSystem;
+import org.jamesphbennett.modularstoragesystem.network.NetworkInfo;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Disk held in each drive bay slot, with the disk sets of networks derived from it
+ * A network's disk set is dropped when one of its slots changes or the network is re-registered with other drive bays.
+ */
+public class DriveBayDiskCache {
+
+    /**
+     * Disks of a network, built from the drive bays of the network as it was registered at the time
+     */
+    private record NetworkDisks(NetworkInfo network, Set<String> diskIds, List<String> orderedDiskIds) {
+    }
+
+    private record SlotDisk(int slot, String diskId) {
+    }
+
+    // Drive bay slot order, disk ID breaks ties between drive bays
+    private static final Comparator<SlotDisk> SLOT_ORDER = Comparator.comparingInt(SlotDisk::slot).thenComparing(SlotDisk::diskId);
+
+    private final ModularStorageSystem plugin;
+
+    // Drive bay location -> slot number -> disk ID
+    private final Map<Location, Map<Integer, String>> slotsByDriveBay = new HashMap<>();
+
+    // Disk ID -> drive bay location holding it
+    private final Map<String, Location> driveBayByDisk = new HashMap<>();
+
+    // Network ID -> connected disks, rebuilt when the network is re-registered or one of its slots changes
+    private final Map<String, NetworkDisks> networkDisks = new HashMap<>();
+
+    public DriveBayDiskCache(ModularStorageSystem plugin) throws SQLException {
+        this.plugin = plugin;
+        loadSlots();
+    }
+
+    /**
+     * Get the disks in the drive bays currently connected to a network
+     *
+     * @return the disk IDs, empty if the network isn't registered
+     */
+    public synchronized Set<String> getNetworkDiskIds(String networkId) {
+        NetworkDisks disks = getNetworkDisks(networkId);
+        return disks != null ? disks.diskIds() : Set.of();
+    }
+
+    /**
+     * Get the disks in the drive bays currently connected to a network, in drive bay slot order
+     *
+     * @return the disk IDs, empty if the network isn't registered
+     */
+    public synchronized List<String> getOrderedNetworkDiskIds(String networkId) {
+        NetworkDisks disks = getNetworkDisks(networkId);
+        return disks != null ? disks.orderedDiskIds() : List.of();
+    }
+
+    private NetworkDisks getNetworkDisks(String networkId) {
+        NetworkInfo network = plugin.getNetworkManager().getTopology().getNetwork(networkId);
+        if (network == null) {
+            return null;
+        }
+
+        NetworkDisks cached = networkDisks.get(networkId);
+        if (cached != null && cached.network() == network) {
+            return cached;
+        }
+
+        List<SlotDisk> slotDisks = new ArrayList<>();
+        for (Location driveBay : network.getDriveBays()) {
+            Map<Integer, String> slots = slotsByDriveBay.get(key(driveBay));
+            if (slots != null) {
+                for (Map.Entry<Integer, String> slot : slots.entrySet()) {
+                    slotDisks.add(new SlotDisk(slot.getKey(), slot.getValue()));
+                }
+            }
+        }
+        slotDisks.sort(SLOT_ORDER);
+
+        List<String> orderedDiskIds = slotDisks.stream().map(SlotDisk::diskId).toList();
+        NetworkDisks disks = new NetworkDisks(network, Set.copyOf(orderedDiskIds), orderedDiskIds);
+        networkDisks.put(networkId, disks);
+        return disks;
+    }
+
+    /**
+     * Record a disk placed in a drive bay slot, moving it if it was held elsewhere
+     */
+    public synchronized void setDisk(Location driveBay, int slot, String diskId) {
+        removeDisk(diskId);
+        removeSlot(driveBay, slot);
+
+        Location key = key(driveBay);
+        slotsByDriveBay.computeIfAbsent(key, k -> new HashMap<>()).put(slot, diskId);
+        driveBayByDisk.put(diskId, key);
+        invalidateNetwork(key);
+    }
+
+    /**
+     * Record a drive bay slot being emptied
+     */
+    public synchronized void removeSlot(Location driveBay, int slot) {
+        Location key = key(driveBay);
+        Map<Integer, String> slots = slotsByDriveBay.get(key);
+        if (slots == null) {
+            return;
+        }
+
+        String diskId = slots.remove(slot);
+        if (diskId != null) {
+            driveBayByDisk.remove(diskId);
+            invalidateNetwork(key);
+        }
+        if (slots.isEmpty()) {
+            slotsByDriveBay.remove(key);
+        }
+    }
+
+    /**
+     * Record a disk being taken out of whatever drive bay held it
+     */
+    public synchronized void removeDisk(String diskId) {
+        Location driveBay = driveBayByDisk.remove(diskId);
+        if (driveBay == null) {
+            return;
+        }
+
+        Map<Integer, String> slots = slotsByDriveBay.get(driveBay);
+        if (slots != null) {
+            slots.values().remove(diskId);
+            if (slots.isEmpty()) {
+                slotsByDriveBay.remove(driveBay);
+            }
+        }
+        invalidateNetwork(driveBay);
+    }
+
+    private void invalidateNetwork(Location driveBay) {
+        String networkId = plugin.getNetworkManager().getTopology().getNetworkId(driveBay);
+        if (networkId != null) {
+            networkDisks.remove(networkId);
+            plugin.getNetworkManager().getEventBus().postDisksChanged(networkId);
+        }
+    }
+
+    private void loadSlots() throws SQLException {
+        try (Connection conn = plugin.getDatabaseManager().getConnection();
+             PreparedStatement stmt = conn.prepareStatement(
+                     "SELECT world_name, x, y, z, slot_number, disk_id FROM drive_bay_slots WHERE disk_id IS NOT NULL");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                World world = plugin.getServer().getWorld(rs.getString("world_name"));
+                if (world == null) continue;
+
+                Location driveBay = new Location(world, rs.getInt("x"), rs.getInt("y"), rs.getInt("z"));
+                String diskId = rs.getString("disk_id");
+                slotsByDriveBay.computeIfAbsent(driveBay, k -> new HashMap<>()).put(rs.getInt("slot_number"), diskId);
+                driveBayByDisk.put(diskId, driveBay);
+            }
+        }
+        plugin.debugLog("Loaded " + driveBayByDisk.size() + " disks in " + slotsByDriveBay.size() + " drive bays");
+    }
+
+    private static Location key(Location location) {
+        return new Location(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+}
@@ -0,0 +1,172 @@
+package org.jamesphbennett.modularstoragesystem.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.TranslatableComponent;
+import net.kyori.adventure.text.format.Style;
+import net.kyori.adventure.text.format.TextColor;
+import net.kyori.adventure.text.format.TextDecoration;
+
+import java.util.List;
+
+/**
+ * Streaming 128-bit hasher for item identity, based on the MurmurHash3 x64 128 mixing steps
+ * Values are fed in directly, so no intermediate strings are built
+ */
+public final class ItemHasher {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final TextDecoration[] DECORATIONS = TextDecoration.values();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private long h1;
+    private long h2;
+    private int length;
+
+    public ItemHasher() {
+        reset();
+    }
+
+    /**
+     * Clear the state so the hasher can be reused
+     */
+    public ItemHasher reset() {
+        h1 = 0x9368e53c2f6af274L;
+        h2 = 0x586dcd208f7cd3fdL;
+        length = 0;
+        return this;
+    }
+
+    public ItemHasher putLong(long value) {
+        long k1 = value * C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        long k2 = value * C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+
+        length++;
+        return this;
+    }
+
+    public ItemHasher putInt(int value) {
+        return putLong(value);
+    }
+
+    public ItemHasher putBoolean(boolean value) {
+        return putLong(value ? 1 : 0);
+    }
+
+    /**
+     * Feed a string, four characters per block. The length is included so adjacent strings can't run together.
+     */
+    public ItemHasher putString(String value) {
+        if (value == null) {
+            return putLong(-1);
+        }
+
+        int len = value.length();
+        putLong(len);
+        int i = 0;
+        for (; i + 4 <= len; i += 4) {
+            putLong(((long) value.charAt(i) << 48) | ((long) value.charAt(i + 1) << 32)
+                    | ((long) value.charAt(i + 2) << 16) | value.charAt(i + 3));
+        }
+        if (i < len) {
+            long block = 0;
+            for (; i < len; i++) {
+                block = (block << 16) | value.charAt(i);
+            }
+            putLong(block);
+        }
+        return this;
+    }
+
+    /**
+     * Feed the visible content of a text component: text, color, decorations and children
+     * Click/hover events are ignored, like the legacy text they replace
+     */
+    public ItemHasher putComponent(Component component) {
+        if (component == null) {
+            return putLong(-1);
+        }
+
+        if (component instanceof TextComponent text) {
+            putInt(1).putString(text.content());
+        } else if (component instanceof TranslatableComponent translatable) {
+            putInt(2).putString(translatable.key());
+        } else {
+            putInt(3).putString(component.getClass().getSimpleName());
+        }
+
+        Style style = component.style();
+        TextColor color = style.color();
+        putInt(color != null ? color.value() : -1);
+        for (TextDecoration decoration : DECORATIONS) {
+            putInt(style.decoration(decoration).ordinal());
+        }
+
+        List<Component> children = component.children();
+        putInt(children.size());
+        for (Component child : children) {
+            putComponent(child);
+        }
+        return this;
+    }
+
+    /**
+     * Finish as a single 64-bit value, used to combine unordered entries
+     */
+    public long finishLong() {
+        finalizeState();
+        return h1;
+    }
+
+    /**
+     * Finish as a 32 character hex string
+     */
+    public String finish() {
+        finalizeState();
+        char[] out = new char[32];
+        writeHex(out, 0, h1);
+        writeHex(out, 16, h2);
+        return new String(out);
+    }
+
+    private void finalizeState() {
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        h2 += h1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static void writeHex(char[] out, int offset, long value) {
+        for (int i = 15; i >= 0; i--) {
+            out[offset + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.jamesphbennett.modularstoragesystem.utils;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Array backed FIFO queue of primitive longs, used for breadth-first traversals
+ * Not thread safe
+ */
+public final class LongArrayQueue {
+
+    private long[] elements;
+    private int head;
+    private int size;
+
+    public LongArrayQueue() {
+        this(64);
+    }
+
+    public LongArrayQueue(int initialCapacity) {
+        elements = new long[Integer.highestOneBit(Math.max(2, initialCapacity) - 1) << 1];
+    }
+
+    public void add(long value) {
+        if (size == elements.length) {
+            grow();
+        }
+        elements[(head + size) & (elements.length - 1)] = value;
+        size++;
+    }
+
+    public long poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        long value = elements[head];
+        head = (head + 1) & (elements.length - 1);
+        size--;
+        return value;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void grow() {
+        long[] grown = new long[elements.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = elements[(head + i) & (elements.length - 1)];
+        }
+        elements = grown;
+        head = 0;
+    }
+}
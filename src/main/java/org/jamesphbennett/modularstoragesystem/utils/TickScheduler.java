@@ -0,0 +1,101 @@
+package org.jamesphbennett.modularstoragesystem.utils;
+
+import java.util.*;
+
+/**
+ * Spreads keys serviced once per interval evenly over the ticks of that interval
+ * Each key gets a phase from its hash and becomes due on the tick of its phase. Due keys are serviced in order
+ * within a per-tick limit, anything left over carries to the next tick ahead of newly due keys.
+ * Keys are dropped lazily, when a visit reports them gone. Not thread safe, only use from the main thread.
+ */
+public final class TickScheduler<K> {
+
+    /**
+     * Outcome of visiting a key
+     */
+    public enum Visit {
+        /** The key did work and counts against the tick limits */
+        PROCESSED,
+        /** The key had nothing to do */
+        SKIPPED,
+        /** The key no longer exists and leaves the schedule */
+        REMOVED
+    }
+
+    @FunctionalInterface
+    public interface Visitor<K> {
+        Visit visit(K key);
+    }
+
+    /**
+     * Result of one tick
+     *
+     * @param processed keys that did work
+     * @param carried   due keys left over for the next tick
+     */
+    public record Tick(int processed, int carried) {
+    }
+
+    private final List<Set<K>> phases;
+    private final ArrayDeque<K> due = new ArrayDeque<>();
+    private final Set<K> dueKeys = new HashSet<>();
+    private long tick;
+
+    /**
+     * @param interval ticks between two visits of the same key
+     */
+    public TickScheduler(int interval) {
+        phases = new ArrayList<>(Math.max(1, interval));
+        for (int i = 0; i < Math.max(1, interval); i++) {
+            phases.add(new LinkedHashSet<>());
+        }
+    }
+
+    /**
+     * Schedule a key, does nothing if it's already scheduled
+     */
+    public void add(K key) {
+        phaseOf(key).add(key);
+    }
+
+    /**
+     * Advance one tick, queue the keys whose phase came up and visit due keys until the limits are hit
+     * At least one key is processed per tick so the schedule makes progress, whatever the budget.
+     *
+     * @param maxProcessed stop after this many keys did work
+     * @param budgetNanos  stop once the tick took this long, 0 for no time limit
+     */
+    public Tick tick(Visitor<K> visitor, int maxProcessed, long budgetNanos) {
+        long start = System.nanoTime();
+
+        for (K key : phases.get((int) (tick++ % phases.size()))) {
+            if (dueKeys.add(key)) {
+                due.addLast(key);
+            }
+        }
+
+        int processed = 0;
+        while (!due.isEmpty()) {
+            if (processed > 0 && (processed >= maxProcessed || (budgetNanos > 0 && System.nanoTime() - start >= budgetNanos))) {
+                break;
+            }
+
+            K key = due.pollFirst();
+            dueKeys.remove(key);
+
+            Visit visit = visitor.visit(key);
+            if (visit == Visit.REMOVED) {
+                phaseOf(key).remove(key);
+            } else if (visit == Visit.PROCESSED) {
+                processed++;
+            }
+        }
+        return new Tick(processed, due.size());
+    }
+
+    private Set<K> phaseOf(K key) {
+        // Mix the hash so keys with similar hash codes still land in different phases
+        int hash = key.hashCode() * 0x9E3779B9;
+        return phases.get(Math.floorMod(hash ^ (hash >>> 16), phases.size()));
+    }
+}